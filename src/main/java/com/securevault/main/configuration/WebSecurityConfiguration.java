@@ -1,6 +1,7 @@
 package com.securevault.main.configuration;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -95,6 +96,8 @@ public class WebSecurityConfiguration {
 				.authorizeHttpRequests(
 						requests -> requests
 								.requestMatchers("/", "/api/v1/auth/**", "/api/v1/health/**").permitAll()
+								// Actuator only listens on the local management port
+								.requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
 								.anyRequest().authenticated())
 				.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
 				.build();
@@ -0,0 +1,94 @@
+package com.securevault.main.configuration.mongo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import com.securevault.main.entity.EmailVerificationToken;
+import com.securevault.main.entity.User;
+
+/**
+ * Indexes the application relies on, per entity. Index auto-creation is off,
+ * so this catalogue is the single place where MongoDB indexes are declared;
+ * they are created and verified at startup by MongoIndexInitializer.
+ *
+ * Field names are raw document paths, e.g. "user.$id" for a DBRef.
+ */
+public final class MongoIndexCatalogue {
+
+	public static final List<IndexSpec> INDEXES = List.of(
+			// Login, registration and lockout lookups
+			new IndexSpec(User.class, List.of("email"), true),
+			// Email verification lookups
+			new IndexSpec(EmailVerificationToken.class, List.of("token"), true),
+			new IndexSpec(EmailVerificationToken.class, List.of("user.$id"), false),
+			// Expired tokens are removed by MongoDB once their expiration date passes
+			new IndexSpec(EmailVerificationToken.class, List.of("expirationDate"), false, Duration.ZERO));
+
+	private MongoIndexCatalogue() {
+	}
+
+	/**
+	 * Declared ascending index
+	 *
+	 * @param entityClass Entity of the indexed collection
+	 * @param fields      Indexed fields, in key order
+	 * @param unique      Whether the index is unique
+	 * @param expireAfter Time to live after the date of the indexed field, or
+	 *                    null for an index without expiry
+	 */
+	public record IndexSpec(Class<?> entityClass, List<String> fields, boolean unique, Duration expireAfter) {
+
+		public IndexSpec(Class<?> entityClass, List<String> fields, boolean unique) {
+			this(entityClass, fields, unique, null);
+		}
+
+		public Index toIndex() {
+			Index index = new Index();
+			fields.forEach(field -> index.on(field, Sort.Direction.ASC));
+			if (expireAfter != null) {
+				index.expire(expireAfter);
+			}
+
+			return unique ? index.unique() : index;
+		}
+
+		/**
+		 * Whether an existing index with the keys of this declaration also has its
+		 * options
+		 */
+		public boolean hasOptionsOf(IndexInfo info) {
+			return info.isUnique() == unique && info.getExpireAfter().equals(Optional.ofNullable(expireAfter));
+		}
+
+		/**
+		 * Whether an existing index has the keys of this declaration
+		 */
+		public boolean hasKeysOf(IndexInfo info) {
+			List<IndexField> indexFields = info.getIndexFields();
+			if (indexFields.size() != fields.size()) {
+				return false;
+			}
+
+			for (int i = 0; i < fields.size(); i++) {
+				IndexField indexField = indexFields.get(i);
+				if (!fields.get(i).equals(indexField.getKey()) || indexField.getDirection() != Sort.Direction.ASC) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return String.join(",", fields) + (unique ? " (unique)" : "")
+					+ (expireAfter != null ? " (expire after " + expireAfter.toSeconds() + "s)" : "");
+		}
+	}
+}
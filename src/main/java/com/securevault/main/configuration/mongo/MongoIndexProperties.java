@@ -0,0 +1,21 @@
+package com.securevault.main.configuration.mongo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the MongoDB index catalogue
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mongo.indexes")
+public class MongoIndexProperties {
+
+	/**
+	 * Whether startup fails when an index of the catalogue is missing or differs
+	 * from its declaration. Otherwise drift is only logged.
+	 */
+	private boolean strict = false;
+}
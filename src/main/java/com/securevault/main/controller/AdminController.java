@@ -0,0 +1,39 @@
+package com.securevault.main.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.securevault.main.configuration.api.ApiVersion;
+import com.securevault.main.dto.response.SuccessResponse;
+import com.securevault.main.exception.BadRequestException;
+import com.securevault.main.service.MessageSourceService;
+import com.securevault.main.service.expiration.RedisDiagnosticsService;
+import com.securevault.main.util.ApiEndpoints;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequestMapping(ApiEndpoints.ADMIN_BASE_URL)
+@ApiVersion("1")
+@PreAuthorize("hasAuthority('ADMIN')")
+@RequiredArgsConstructor
+public class AdminController {
+	private final MessageSourceService messageSourceService;
+	private final RedisDiagnosticsService redisDiagnosticsService;
+
+	@GetMapping(ApiEndpoints.ADMIN_REDIS_DIAGNOSTICS_URL)
+	public ResponseEntity<SuccessResponse> getRedisDiagnostics() {
+		try {
+			return ResponseEntity.ok(SuccessResponse.of(messageSourceService.get("redis_diagnostics_retrieved"),
+					redisDiagnosticsService.diagnose()));
+		} catch (Exception e) {
+			log.error("Error getting Redis diagnostics: {}", e.getMessage());
+			throw new BadRequestException(messageSourceService.get("service_unavailable"));
+		}
+	}
+}
@@ -1,16 +1,27 @@
 package com.securevault.main.controller;
 
+import java.util.UUID;
+
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.securevault.main.configuration.api.ApiVersion;
 import com.securevault.main.dto.response.SuccessResponse;
 import com.securevault.main.exception.BadRequestException;
+import com.securevault.main.exception.NotFoundException;
+import com.securevault.main.security.JwtTokenProvider;
+import com.securevault.main.service.JwtTokenService;
 import com.securevault.main.service.MessageSourceService;
+import com.securevault.main.service.UserService;
 import com.securevault.main.util.ApiEndpoints;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,7 +31,13 @@ import lombok.extern.slf4j.Slf4j;
 @ApiVersion("1")
 @RequiredArgsConstructor
 public class UserController {
+	private static final int MAX_SESSIONS_PAGE_SIZE = 100;
+
 	private final MessageSourceService messageSourceService;
+	private final UserService userService;
+	private final JwtTokenService jwtTokenService;
+	private final JwtTokenProvider jwtTokenProvider;
+	private final HttpServletRequest httpServletRequest;
 
 	@GetMapping(ApiEndpoints.USER_GET_AUTHENTICATED_USER_URL)
 	public ResponseEntity<SuccessResponse> getAuthenticatedUser() {
@@ -31,4 +48,96 @@ public class UserController {
 			throw new BadRequestException(messageSourceService.get("service_unavailable"));
 		}
 	}
+
+	@GetMapping(ApiEndpoints.USER_SESSIONS_URL)
+	public ResponseEntity<SuccessResponse> getSessions(
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "20") int size) {
+		return getSessions(authenticatedUserId(), page, size, true);
+	}
+
+	@DeleteMapping(ApiEndpoints.USER_SESSION_URL)
+	public ResponseEntity<SuccessResponse> revokeSession(@PathVariable UUID id) {
+		return revokeSession(authenticatedUserId(), id);
+	}
+
+	@DeleteMapping(ApiEndpoints.USER_SESSIONS_URL)
+	public ResponseEntity<SuccessResponse> revokeOtherSessions() {
+		try {
+			jwtTokenService.deleteAllByUserIdExcept(authenticatedUserId(), currentSessionId());
+			return ResponseEntity.ok(SuccessResponse.of(messageSourceService.get("sessions_revoked"), null));
+		} catch (NotFoundException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error("Error revoking other sessions: {}", e.getMessage());
+			throw new BadRequestException(messageSourceService.get("service_unavailable"));
+		}
+	}
+
+	@GetMapping(ApiEndpoints.USER_SESSIONS_BY_USER_URL)
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<SuccessResponse> getUserSessions(@PathVariable UUID userId,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "20") int size) {
+		return getSessions(userId, page, size, false);
+	}
+
+	@DeleteMapping(ApiEndpoints.USER_SESSION_BY_USER_URL)
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<SuccessResponse> revokeUserSession(@PathVariable UUID userId, @PathVariable UUID id) {
+		return revokeSession(userId, id);
+	}
+
+	@DeleteMapping(ApiEndpoints.USER_SESSIONS_BY_USER_URL)
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<SuccessResponse> revokeUserSessions(@PathVariable UUID userId) {
+		try {
+			jwtTokenService.deleteAllByUserId(userId);
+			return ResponseEntity.ok(SuccessResponse.of(messageSourceService.get("all_sessions_revoked"), null));
+		} catch (Exception e) {
+			log.error("Error revoking sessions of user {}: {}", userId, e.getMessage());
+			throw new BadRequestException(messageSourceService.get("service_unavailable"));
+		}
+	}
+
+	/**
+	 * List sessions of a user, flagging the session of the caller only on its own
+	 * listing to spare the lookup of the request token on admin listings
+	 */
+	private ResponseEntity<SuccessResponse> getSessions(final UUID userId, final int page, final int size,
+			final boolean flagCurrent) {
+		try {
+			int pageSize = Math.min(Math.max(size, 1), MAX_SESSIONS_PAGE_SIZE);
+			UUID currentSessionId = flagCurrent ? currentSessionId() : null;
+			return ResponseEntity.ok(SuccessResponse.of(messageSourceService.get("sessions_retrieved"),
+					jwtTokenService.findSessions(userId, Math.max(page, 0), pageSize, currentSessionId)));
+		} catch (Exception e) {
+			log.error("Error getting sessions of user {}: {}", userId, e.getMessage());
+			throw new BadRequestException(messageSourceService.get("service_unavailable"));
+		}
+	}
+
+	private ResponseEntity<SuccessResponse> revokeSession(final UUID userId, final UUID id) {
+		try {
+			jwtTokenService.deleteByUserIdAndId(userId, id);
+			return ResponseEntity.ok(SuccessResponse.of(messageSourceService.get("session_revoked"), null));
+		} catch (NotFoundException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error("Error revoking session {}: {}", id, e.getMessage());
+			throw new BadRequestException(messageSourceService.get("service_unavailable"));
+		}
+	}
+
+	private UUID authenticatedUserId() {
+		return UUID.fromString(userService.getPrincipal(userService.getAuthentication()).getId());
+	}
+
+	/**
+	 * Session of the access token of the current request
+	 */
+	private UUID currentSessionId() {
+		return jwtTokenService.findByTokenOrRefreshToken(jwtTokenProvider.extractJwtFromRequest(httpServletRequest))
+				.getId();
+	}
 }
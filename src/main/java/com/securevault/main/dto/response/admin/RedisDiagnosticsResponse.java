@@ -0,0 +1,17 @@
+package com.securevault.main.dto.response.admin;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@SuperBuilder
+public class RedisDiagnosticsResponse {
+	private Long keyspaceSize;
+	private Integer randomKeySamples;
+	private Long durationMs;
+	private List<RedisEntityDiagnosticsResponse> entities;
+}
@@ -0,0 +1,22 @@
+package com.securevault.main.dto.response.admin;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@SuperBuilder
+public class RedisEntityDiagnosticsResponse {
+	private String entity;
+	private String hashName;
+	private Long mainSetCardinality;
+	private Double mainSetOrphanRatio;
+	private Long indexSets;
+	private Boolean indexSetsComplete;
+	private Double indexOrphanRatio;
+	private Double keyspaceShare;
+	private List<RedisKeyFamilyMemoryResponse> memory;
+}
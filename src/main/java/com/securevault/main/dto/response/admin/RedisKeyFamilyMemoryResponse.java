@@ -0,0 +1,17 @@
+package com.securevault.main.dto.response.admin;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@SuperBuilder
+public class RedisKeyFamilyMemoryResponse {
+	private String family;
+	private String pattern;
+	private Long keys;
+	private Integer sampledKeys;
+	private Long averageBytes;
+	private Long estimatedBytes;
+}
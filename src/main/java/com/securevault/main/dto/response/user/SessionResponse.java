@@ -0,0 +1,20 @@
+package com.securevault.main.dto.response.user;
+
+import java.util.Date;
+import java.util.UUID;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@SuperBuilder
+public class SessionResponse {
+	private UUID id;
+	private String ipAddress;
+	private String userAgent;
+	private Boolean rememberMe;
+	private Date expiresAt;
+	private Boolean current;
+}
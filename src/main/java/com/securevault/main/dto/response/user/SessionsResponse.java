@@ -0,0 +1,17 @@
+package com.securevault.main.dto.response.user;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@SuperBuilder
+public class SessionsResponse {
+	private Integer page;
+	private Integer size;
+	private Long total;
+	private List<SessionResponse> sessions;
+}
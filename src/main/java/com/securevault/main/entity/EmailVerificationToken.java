@@ -23,9 +23,9 @@ public class EmailVerificationToken extends AbstractBaseEntity {
 
 	private String token;
 
+	/**
+	 * The document is removed by the TTL index on this field once the date
+	 * passes, see MongoIndexCatalogue
+	 */
 	private Date expirationDate;
-
-	public boolean isExpired() {
-		return expirationDate.before(new Date());
-	}
 }
@@ -30,19 +30,14 @@ public class JwtToken {
 	@Indexed
 	private UUID userId;
 
-	@Indexed
 	private String token;
 
-	@Indexed
 	private String refreshToken;
 
-	@Indexed
 	private Boolean rememberMe;
 
-	@Indexed
 	private String ipAddress;
 
-	@Indexed
 	private String userAgent;
 
 	@TimeToLive(unit = TimeUnit.MILLISECONDS)
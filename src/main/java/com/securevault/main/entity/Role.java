@@ -1,8 +1,5 @@
 package com.securevault.main.entity;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -21,15 +18,9 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Role extends AbstractBaseEntity {
-
-	@Builder.Default
-	@Field("users")
-	private Set<String> users = new HashSet<>();
+	// Membership is kept on the user side in User#roleNames, so a role document
+	// stays the same size whatever the number of users
 
 	@Field("name")
 	private Constants.RoleEnum name;
-
-	public Role(Constants.RoleEnum roleName) {
-		this.name = roleName;
-	}
 }
\ No newline at end of file
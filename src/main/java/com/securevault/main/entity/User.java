@@ -47,7 +47,11 @@ public class User extends AbstractBaseEntity {
 	@Positive
 	private Integer kdfIterations;
 
-	@DBRef
+	/**
+	 * Resolved on first access only, so that reading a user stays a single
+	 * document read
+	 */
+	@DBRef(lazy = true)
 	private EmailVerificationToken emailVerificationToken;
 
 	private LocalDateTime emailVerifiedAt;
@@ -56,8 +60,11 @@ public class User extends AbstractBaseEntity {
 
 	private LocalDateTime lockedUntil;
 
-	@DBRef
+	/**
+	 * Snapshot of the names of the roles of the user, role definitions are
+	 * served from the cache of RoleService
+	 */
 	@Builder.Default
-	private List<Role> roles = new ArrayList<>();
+	private List<String> roleNames = new ArrayList<>();
 
 }
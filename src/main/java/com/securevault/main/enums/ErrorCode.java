@@ -14,5 +14,6 @@ public enum ErrorCode {
 	GATEWAY_TIMEOUT,
 	METHOD_NOT_ALLOWED,
 	UNSUPPORTED_MEDIA_TYPE,
+	TOO_MANY_REQUESTS,
 	EMAIL_SENDING_FAILED
 }
@@ -9,6 +9,7 @@ import java.util.Map;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -130,6 +131,19 @@ public class AppExceptionHandler {
 		return build(HttpStatus.UNAUTHORIZED, ErrorCode.UNAUTHORIZED, e.getMessage());
 	}
 
+	@ExceptionHandler(TooManyRequestsException.class)
+	public final ResponseEntity<ErrorResponse> handleTooManyRequestsException(final TooManyRequestsException e) {
+		log.error("Too many requests: {}", e.getMessage());
+		ResponseEntity<ErrorResponse> response = build(HttpStatus.TOO_MANY_REQUESTS, ErrorCode.TOO_MANY_REQUESTS,
+				e.getMessage());
+
+		// Whole seconds, rounded up so that a retry at that time is allowed
+		long retryAfterSeconds = (e.getRetryAfter().toMillis() + 999) / 1000;
+		return ResponseEntity.status(response.getStatusCode())
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+				.body(response.getBody());
+	}
+
 	@ExceptionHandler(AccessDeniedException.class)
 	public final ResponseEntity<ErrorResponse> handleAccessDeniedException(final Exception e) {
 		return build(HttpStatus.FORBIDDEN, ErrorCode.FORBIDDEN, e.getMessage());
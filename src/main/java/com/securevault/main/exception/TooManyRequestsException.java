@@ -0,0 +1,22 @@
+package com.securevault.main.exception;
+
+import java.io.Serial;
+import java.time.Duration;
+
+public class TooManyRequestsException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private final Duration retryAfter;
+
+	public TooManyRequestsException(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+}
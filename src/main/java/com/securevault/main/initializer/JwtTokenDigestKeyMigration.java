@@ -0,0 +1,89 @@
+package com.securevault.main.initializer;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.securevault.main.entity.JwtToken;
+import com.securevault.main.repository.JwtTokenRepository;
+import com.securevault.main.service.session.JwtTokenKeys;
+import com.securevault.main.service.session.JwtTokenStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One-shot migration of sessions created before token digest keys existed. It
+ * writes digest keys for every live session, keeping its remaining lifetime.
+ * The index sets of the full token strings are removed by
+ * {@link RedisIndexMigration} as retired index fields. A marker key makes sure
+ * only one node runs it, once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtTokenDigestKeyMigration implements ApplicationRunner {
+	private static final String MIGRATION_KEY = "migrations:jwt_tokens:digest-keys";
+	private static final int SCAN_COUNT = 500;
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final JwtTokenRepository jwtTokenRepository;
+	private final JwtTokenStore jwtTokenStore;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		try {
+			Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(MIGRATION_KEY, Instant.now().toString());
+			if (!Boolean.TRUE.equals(claimed)) {
+				log.debug("Session digest key migration already applied");
+				return;
+			}
+		} catch (Exception e) {
+			log.error("Could not check session digest key migration state: {}", e.getMessage());
+			return;
+		}
+
+		try {
+			int migrated = migrateSessions();
+
+			log.info("Session digest key migration completed. Migrated {} sessions", migrated);
+		} catch (Exception e) {
+			log.error("Session digest key migration failed, it will be retried on next startup", e);
+			stringRedisTemplate.delete(MIGRATION_KEY);
+		}
+	}
+
+	private int migrateSessions() {
+		int migrated = 0;
+
+		try (Cursor<String> ids = stringRedisTemplate.opsForSet().scan(JwtTokenKeys.KEYSPACE,
+				ScanOptions.scanOptions().count(SCAN_COUNT).build())) {
+			while (ids.hasNext()) {
+				String id = ids.next();
+				Long remaining = stringRedisTemplate.getExpire(JwtTokenKeys.sessionKey(id), TimeUnit.MILLISECONDS);
+
+				// -2 means the session hash is already gone
+				if (remaining == null || remaining == -2) {
+					continue;
+				}
+
+				Optional<JwtToken> jwtToken = jwtTokenRepository.findById(UUID.fromString(id));
+				if (jwtToken.isPresent()) {
+					jwtTokenStore.saveSessionKeys(jwtToken.get(),
+							remaining > 0 ? remaining : jwtToken.get().getTokenTimeToLive());
+					migrated++;
+				}
+			}
+		}
+
+		return migrated;
+	}
+}
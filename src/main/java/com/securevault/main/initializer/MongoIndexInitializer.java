@@ -0,0 +1,98 @@
+package com.securevault.main.initializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import com.securevault.main.configuration.mongo.MongoIndexCatalogue;
+import com.securevault.main.configuration.mongo.MongoIndexCatalogue.IndexSpec;
+import com.securevault.main.configuration.mongo.MongoIndexProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes of {@link MongoIndexCatalogue} that do not exist yet,
+ * then compares the indexes of every catalogued collection with the
+ * catalogue. Missing or differing indexes are drift, which fails startup in
+ * strict mode; indexes the catalogue does not declare are only reported.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MongoIndexInitializer implements ApplicationRunner {
+	private static final String ID_INDEX = "_id_";
+
+	private final MongoTemplate mongoTemplate;
+	private final MongoIndexProperties mongoIndexProperties;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		Map<String, List<IndexSpec>> catalogue = new LinkedHashMap<>();
+		MongoIndexCatalogue.INDEXES.forEach(spec -> catalogue
+				.computeIfAbsent(mongoTemplate.getCollectionName(spec.entityClass()), key -> new ArrayList<>())
+				.add(spec));
+
+		List<String> drift = new ArrayList<>();
+		catalogue.forEach((collection, specs) -> drift.addAll(apply(collection, specs)));
+
+		if (drift.isEmpty()) {
+			log.info("MongoDB indexes match the catalogue ({} indexes)", MongoIndexCatalogue.INDEXES.size());
+			return;
+		}
+
+		drift.forEach(entry -> log.warn("MongoDB index drift: {}", entry));
+		if (mongoIndexProperties.isStrict()) {
+			throw new IllegalStateException("MongoDB indexes drifted from the catalogue: " + String.join("; ", drift));
+		}
+	}
+
+	private List<String> apply(String collection, List<IndexSpec> specs) {
+		IndexOperations indexOps = mongoTemplate.indexOps(collection);
+
+		for (IndexSpec spec : specs) {
+			try {
+				indexOps.ensureIndex(spec.toIndex());
+			} catch (Exception e) {
+				log.error("Could not create index {} on {}: {}", spec, collection, e.getMessage());
+			}
+		}
+
+		List<IndexInfo> existing;
+		try {
+			existing = indexOps.getIndexInfo();
+		} catch (Exception e) {
+			return List.of(collection + ": could not list indexes, " + e.getMessage());
+		}
+
+		List<String> drift = new ArrayList<>();
+		for (IndexSpec spec : specs) {
+			Optional<IndexInfo> match = existing.stream().filter(spec::hasKeysOf).findFirst();
+			if (match.isEmpty()) {
+				drift.add(collection + ": missing index " + spec);
+			} else if (!spec.hasOptionsOf(match.get())) {
+				drift.add(collection + ": index " + match.get().getName() + " differs from " + spec);
+			}
+		}
+
+		existing.stream()
+				.filter(info -> !ID_INDEX.equals(info.getName()))
+				.filter(info -> specs.stream().noneMatch(spec -> spec.hasKeysOf(info)))
+				.forEach(info -> log.info("Index {} on {} is not declared in the catalogue", info.getName(),
+						collection));
+
+		return drift;
+	}
+}
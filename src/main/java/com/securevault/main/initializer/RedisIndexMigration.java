@@ -0,0 +1,113 @@
+package com.securevault.main.initializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.securevault.main.service.expiration.RedisEntityDiscoveryProperties;
+import com.securevault.main.service.expiration.RedisEntityDiscoveryService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One-shot removal of index sets that belong to fields which are no longer
+ * indexed, configured through app.redis.entity.retired-index-fields. Each
+ * retired field is migrated once, guarded by its own marker key, so retiring
+ * another field later only sweeps that field.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisIndexMigration implements ApplicationRunner {
+	private static final String MIGRATION_KEY_PREFIX = "migrations:redis-indexes:";
+	private static final int SCAN_COUNT = 500;
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisEntityDiscoveryProperties discoveryProperties;
+	private final RedisEntityDiscoveryService redisEntityDiscoveryService;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		Map<String, List<String>> retiredIndexFields = discoveryProperties.getRetiredIndexFields();
+		if (retiredIndexFields == null || retiredIndexFields.isEmpty()) {
+			return;
+		}
+
+		retiredIndexFields.forEach((hashName, fieldNames) -> {
+			Set<String> indexedFieldNames = indexedFieldNamesOf(hashName);
+
+			for (String fieldName : fieldNames) {
+				if (indexedFieldNames.contains(fieldName)) {
+					log.warn("Skipping retired index {}:{}, the field is still indexed", hashName, fieldName);
+					continue;
+				}
+
+				migrate(hashName, fieldName);
+			}
+		});
+	}
+
+	private void migrate(final String hashName, final String fieldName) {
+		String migrationKey = MIGRATION_KEY_PREFIX + hashName + ":" + fieldName;
+
+		try {
+			Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(migrationKey, Instant.now().toString());
+			if (!Boolean.TRUE.equals(claimed)) {
+				log.debug("Retired index {}:{} already removed", hashName, fieldName);
+				return;
+			}
+
+			int removed = unlinkKeys(hashName + ":" + fieldName + ":*");
+			log.info("Removed {} index sets of retired index {}:{}", removed, hashName, fieldName);
+		} catch (Exception e) {
+			log.error("Could not remove retired index {}:{}, it will be retried on next startup", hashName,
+					fieldName, e);
+			stringRedisTemplate.delete(migrationKey);
+		}
+	}
+
+	private Set<String> indexedFieldNamesOf(final String hashName) {
+		return redisEntityDiscoveryService.getAllEntityMetadata().values().stream()
+				.filter(metadata -> hashName.equals(metadata.getHashName()))
+				.findFirst()
+				.map(RedisEntityDiscoveryService.EntityMetadata::getIndexedFieldNames)
+				.orElse(Set.of());
+	}
+
+	private int unlinkKeys(final String pattern) {
+		int removed = 0;
+		List<String> batch = new ArrayList<>();
+
+		try (Cursor<String> keys = stringRedisTemplate.scan(ScanOptions.scanOptions().match(pattern)
+				.count(SCAN_COUNT).build())) {
+			while (keys.hasNext()) {
+				batch.add(keys.next());
+				if (batch.size() >= SCAN_COUNT) {
+					removed += unlink(batch);
+				}
+			}
+		}
+
+		return removed + unlink(batch);
+	}
+
+	private int unlink(final List<String> keys) {
+		if (keys.isEmpty()) {
+			return 0;
+		}
+
+		Long unlinked = stringRedisTemplate.unlink(keys);
+		keys.clear();
+		return unlinked != null ? unlinked.intValue() : 0;
+	}
+}
@@ -2,26 +2,35 @@ package com.securevault.main.initializer;
 
 import com.securevault.main.entity.Role;
 import com.securevault.main.repository.RoleRepository;
+import com.securevault.main.service.RoleService;
 import com.securevault.main.util.Constants;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
 
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class RoleInitializer implements ApplicationRunner {
 
     private final RoleRepository roleRepository;
+    private final RoleService roleService;
 
-    public RoleInitializer(RoleRepository roleRepository) {
+    public RoleInitializer(RoleRepository roleRepository, RoleService roleService) {
         this.roleRepository = roleRepository;
+        this.roleService = roleService;
     }
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
         createDefaultRoleIfNotExist(Constants.RoleEnum.ADMIN);
         createDefaultRoleIfNotExist(Constants.RoleEnum.USER);
+
+        // Serve role definitions from memory from now on
+        roleService.refreshCache();
     }
 
     private void createDefaultRoleIfNotExist(Constants.RoleEnum roleName) {
@@ -0,0 +1,45 @@
+package com.securevault.main.initializer;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.result.UpdateResult;
+import com.securevault.main.entity.Role;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migration to role membership kept on the user side. It drops the member
+ * arrays that role documents used to hold; the index on the role names of
+ * users is declared in MongoIndexCatalogue.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleMembershipMigration implements ApplicationRunner {
+	private static final String LEGACY_USERS_FIELD = "users";
+
+	private final MongoTemplate mongoTemplate;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		try {
+			UpdateResult result = mongoTemplate.updateMulti(
+					Query.query(Criteria.where(LEGACY_USERS_FIELD).exists(true)),
+					new Update().unset(LEGACY_USERS_FIELD),
+					Role.class);
+
+			if (result.getModifiedCount() > 0) {
+				log.info("Role membership migration completed. Shrunk {} roles", result.getModifiedCount());
+			}
+		} catch (Exception e) {
+			log.error("Role membership migration failed, it will be retried on next startup", e);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.securevault.main.initializer;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.result.UpdateResult;
+import com.securevault.main.entity.Role;
+import com.securevault.main.entity.User;
+import com.securevault.main.repository.RoleRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migration of users created while roles were stored as DBRefs. The name of
+ * every referenced role is copied into the embedded role names, then the
+ * references are dropped. Only documents still holding references are
+ * touched, so running it again on every startup is a no-op.
+ *
+ * It runs once all singletons exist but before the web server starts, so a
+ * legacy user can never authenticate without authorities. A failure stops
+ * the startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserRoleMigration implements SmartInitializingSingleton {
+	private static final String LEGACY_ROLES_FIELD = "roles";
+
+	private final MongoTemplate mongoTemplate;
+	private final RoleRepository roleRepository;
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		try {
+			Query legacyUsers = Query.query(Criteria.where(LEGACY_ROLES_FIELD).exists(true));
+			if (!mongoTemplate.exists(legacyUsers, User.class)) {
+				log.debug("User role migration already applied");
+				return;
+			}
+
+			for (Role role : roleRepository.findAll()) {
+				UpdateResult result = mongoTemplate.updateMulti(
+						Query.query(Criteria.where(LEGACY_ROLES_FIELD + ".$id").is(role.getId())),
+						new Update().addToSet("roleNames", role.getName().name()),
+						User.class);
+
+				log.info("Embedded role {} on {} users", role.getName(), result.getModifiedCount());
+			}
+
+			UpdateResult result = mongoTemplate.updateMulti(legacyUsers, new Update().unset(LEGACY_ROLES_FIELD),
+					User.class);
+
+			log.info("User role migration completed. Migrated {} users", result.getModifiedCount());
+		} catch (Exception e) {
+			throw new IllegalStateException("User role migration failed, legacy users would have no roles", e);
+		}
+	}
+}
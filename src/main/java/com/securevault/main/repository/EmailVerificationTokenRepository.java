@@ -1,5 +1,6 @@
 package com.securevault.main.repository;
 
+import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,8 +12,14 @@ import com.securevault.main.entity.EmailVerificationToken;
 public interface EmailVerificationTokenRepository extends MongoRepository<EmailVerificationToken, UUID> {
 	Optional<EmailVerificationToken> findByUserId(UUID userId);
 
-	Optional<EmailVerificationToken> findByToken(String token);
+	/**
+	 * Find a token that has not expired. Expired tokens are removed by the TTL
+	 * index on expirationDate, but only by a background pass of MongoDB, so
+	 * reads filter out the ones still waiting for removal.
+	 */
+	Optional<EmailVerificationToken> findByTokenAndExpirationDateAfter(String token, Date now);
 
-	@Query(value = "{'user.id': ?0}", delete = true)
+	// Raw DBRef path, served by the user.$id index of MongoIndexCatalogue
+	@Query(value = "{'user.$id': ?0}", delete = true)
 	void deleteByUserId(UUID userId);
 }
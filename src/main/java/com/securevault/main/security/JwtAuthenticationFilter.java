@@ -2,7 +2,9 @@ package com.securevault.main.security;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,6 +20,8 @@ import com.securevault.main.exception.InvalidTokenException;
 import com.securevault.main.service.UserService;
 import com.securevault.main.util.ApiEndpoints;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,12 +33,31 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	private final JwtTokenProvider jwtTokenProvider;
 	private final UserService userService;
+	private final Timer validTokenTimer;
+	private final Timer invalidTokenTimer;
+	private final boolean strictPrincipal;
 
 	public JwtAuthenticationFilter(
 			@Lazy JwtTokenProvider jwtTokenProvider,
-			@Lazy UserService userService) {
+			@Lazy UserService userService,
+			MeterRegistry meterRegistry,
+			@Value("${app.jwt.principal.strict:true}") boolean strictPrincipal) {
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.userService = userService;
+		this.validTokenTimer = validationTimer(meterRegistry, true);
+		this.invalidTokenTimer = validationTimer(meterRegistry, false);
+		this.strictPrincipal = strictPrincipal;
+	}
+
+	/**
+	 * Token validation latency, timed to compare with Redis cleanup runs
+	 */
+	private static Timer validationTimer(MeterRegistry meterRegistry, boolean valid) {
+		return Timer.builder("jwt.token.validation")
+				.description("Latency of access token validation")
+				.tag("valid", String.valueOf(valid))
+				.publishPercentileHistogram()
+				.register(meterRegistry);
 	}
 
 	@Override
@@ -54,18 +77,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 			if (StringUtils.hasText(token)) {
 				// Validate token and get validation result
+				long start = System.nanoTime();
 				JwtTokenProvider.TokenValidationResult validationResult = jwtTokenProvider.validateToken(token);
+				(validationResult.isValid() ? validTokenTimer : invalidTokenTimer)
+						.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
 				if (!validationResult.isValid()) {
 					log.error("Token validation failed: {}", validationResult.getErrorMessage());
 					throw new InvalidTokenException(validationResult.getErrorMessage());
 				}
 
-				// Get user ID from validated token
-				String userId = jwtTokenProvider.getUserIdFromToken(token);
+				// Get user ID from the claims verified during validation
+				String userId = validationResult.getUserId();
 
-				// Load user details
-				UserDetails user = userService.loadUserById(userId);
+				// Build user details from the token claims, or load them in strict mode
+				UserDetails user = strictPrincipal ? null : JwtUserDetails.create(validationResult.getClaims());
+				if (user == null) {
+					user = userService.loadUserById(userId);
+				}
 
 				if (Objects.nonNull(user) && SecurityContextHolder.getContext().getAuthentication() == null) {
 					UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
@@ -1,25 +1,31 @@
 package com.securevault.main.security;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import com.securevault.main.entity.JwtToken;
 import com.securevault.main.entity.User;
 import com.securevault.main.exception.NotFoundException;
+import com.securevault.main.exception.TokenReuseException;
 import com.securevault.main.service.JwtTokenService;
 import com.securevault.main.service.MessageSourceService;
 import com.securevault.main.service.UserService;
+import com.securevault.main.service.session.JwtTokenRevocationList;
 import com.securevault.main.util.Constants;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -32,8 +38,23 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 @Slf4j
 public class JwtTokenProvider {
+	/**
+	 * Claim telling access tokens from refresh tokens
+	 */
+	public static final String TOKEN_TYPE_CLAIM = "typ";
+	public static final String ACCESS_TOKEN_TYPE = "access";
+	public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+	/**
+	 * Claims of access tokens the principal can be built from without loading
+	 * the user
+	 */
+	public static final String EMAIL_CLAIM = "email";
+	public static final String ROLES_CLAIM = "roles";
+
 	private final UserService userService;
-	private final String appSecret;
+	private final SecretKey signingKey;
+	private final JwtParser jwtParser;
 
 	@Getter
 	private final Long tokenExpiresIn;
@@ -46,6 +67,7 @@ public class JwtTokenProvider {
 
 	private final JwtTokenService jwtTokenService;
 	private final HttpServletRequest httpServletRequest;
+	private final JwtTokenRevocationList jwtTokenRevocationList;
 
 	public JwtTokenProvider(
 			@Value("${app.jwt.secret}") final String appSecret,
@@ -54,20 +76,32 @@ public class JwtTokenProvider {
 			@Value("${app.jwt.remember-me.expires-in}") final Long rememberMeTokenExpiresIn,
 			final UserService userService,
 			final JwtTokenService jwtTokenService,
-			final HttpServletRequest httpServletRequest, MessageSourceService messageSourceService) {
+			final HttpServletRequest httpServletRequest, MessageSourceService messageSourceService,
+			final JwtTokenRevocationList jwtTokenRevocationList) {
 		this.userService = userService;
-		this.appSecret = appSecret;
+		this.signingKey = Keys.hmacShaKeyFor(appSecret.getBytes());
+		this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
 		this.tokenExpiresIn = tokenExpiresIn;
 		this.refreshTokenExpiresIn = refreshTokenExpiresIn;
 		this.rememberMeTokenExpiresIn = rememberMeTokenExpiresIn;
 		this.jwtTokenService = jwtTokenService;
 		this.httpServletRequest = httpServletRequest;
 		this.messageSourceService = messageSourceService;
+		this.jwtTokenRevocationList = jwtTokenRevocationList;
 	}
 
 	public String generateTokenByUserId(final String id, final Long expires) {
+		return generateTokenByUserId(id, expires, null);
+	}
+
+	public String generateTokenByUserId(final String id, final Long expires, final String type) {
+		return generateToken(id, expires, type == null ? Map.of() : Map.of(TOKEN_TYPE_CLAIM, type));
+	}
+
+	private String generateToken(final String id, final Long expires, final Map<String, ?> claims) {
 		String token = Jwts.builder().subject(id).issuedAt(new Date()).expiration(getExpireDate(expires))
-				.signWith(getSigningKey(), Jwts.SIG.HS256).compact();
+				.claims(claims)
+				.signWith(signingKey, Jwts.SIG.HS256).compact();
 
 		log.trace("Token is added to the local cache for userID: {}, ttl: {}", id, expires);
 
@@ -78,15 +112,21 @@ public class JwtTokenProvider {
 		return userService.getPrincipal(authentication);
 	}
 
-	public String getUserIdFromToken(final String token) {
-		Claims claims = parseToken(token).getPayload();
-
-		return claims.getSubject();
-	}
+	/**
+	 * Load the user of a validated token, identified by the subject of its
+	 * verified claims so the token is not parsed again
+	 *
+	 * @param validationResult Result of {@link #validateToken(String)}
+	 * @return User, or null when the token is invalid or the user is not found
+	 */
+	public User getUserFromToken(final TokenValidationResult validationResult) {
+		String userId = validationResult.getUserId();
+		if (!validationResult.isValid() || userId == null) {
+			return null;
+		}
 
-	public User getUserFromToken(final String token) {
 		try {
-			return userService.findById(getUserIdFromToken(token));
+			return userService.findById(userId);
 		} catch (Exception e) {
 			return null;
 		}
@@ -101,34 +141,76 @@ public class JwtTokenProvider {
 		}
 	}
 
+	private JwtToken getTokenOrRefreshToken(final String token, final Claims claims) {
+		try {
+			return jwtTokenService.findByTokenOrRefreshToken(token, claims.getExpiration());
+		} catch (NotFoundException e) {
+			log.error("[JWT] Token could not be found in Redis");
+			return null;
+		}
+	}
+
 	public String generateJwt(final String id) {
-		return generateTokenByUserId(id, tokenExpiresIn);
+		return generateTokenByUserId(id, tokenExpiresIn, ACCESS_TOKEN_TYPE);
+	}
+
+	/**
+	 * Generate an access token carrying the email and role names of the user
+	 *
+	 * @param userDetails JwtUserDetails
+	 * @return String access token
+	 */
+	public String generateJwt(final JwtUserDetails userDetails) {
+		List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+
+		return generateToken(userDetails.getId(), tokenExpiresIn, Map.of(
+				TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE,
+				EMAIL_CLAIM, userDetails.getEmail(),
+				ROLES_CLAIM, roles));
 	}
 
 	public String generateRefresh(final String id) {
-		return generateTokenByUserId(id, refreshTokenExpiresIn);
+		return generateTokenByUserId(id, refreshTokenExpiresIn, REFRESH_TOKEN_TYPE);
 	}
 
 	public TokenValidationResult validateToken(final String token) {
 		try {
-			// Parse and validate token format and signature
-			Jws<Claims> claims = parseToken(token);
+			// Parse and validate token format and signature, this is the only parse per request
+			Claims claims = parseToken(token).getPayload();
 
 			// Check token expiration
-			if (isTokenExpired(token)) {
+			if (isTokenExpired(claims)) {
 				log.error("[JWT] Token expired: {}", token);
 				return new TokenValidationResult(false, messageSourceService.get("token_expired"));
 			}
 
-			// Find token in database
-			JwtToken jwtToken = getTokenOrRefreshToken(token);
+			// Trust the signature and exp claim of access tokens in stateless mode
+			if (jwtTokenRevocationList.isEnabled()
+					&& ACCESS_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+				if (jwtTokenRevocationList.isRevoked(token, claims)) {
+					log.error("[JWT] Token revoked for user: {}", claims.getSubject());
+					return new TokenValidationResult(false, messageSourceService.get("invalid_token"));
+				}
+
+				return new TokenValidationResult(true, null, null, claims);
+			}
+
+			// Find token in database, a rotated refresh token presented again is reuse
+			JwtToken jwtToken;
+			try {
+				jwtToken = getTokenOrRefreshToken(token, claims);
+			} catch (TokenReuseException e) {
+				log.error("[JWT] Rotated refresh token presented again for user: {}", claims.getSubject());
+				return new TokenValidationResult(false, messageSourceService.get("token_reuse_detected"), null, claims,
+						true);
+			}
 			if (jwtToken == null) {
 				log.error("[JWT] Token not found in database: {}", token);
 				return new TokenValidationResult(false, messageSourceService.get("invalid_token"));
 			}
 
 			// Verify token belongs to user
-			String userId = claims.getPayload().getSubject();
+			String userId = claims.getSubject();
 			if (!userId.equals(jwtToken.getUserId().toString())) {
 				log.error("[JWT] Token user mismatch. Token user: {}, Expected user: {}", userId, jwtToken.getUserId());
 				return new TokenValidationResult(false, messageSourceService.get("invalid_token"));
@@ -141,7 +223,7 @@ public class JwtTokenProvider {
 				return new TokenValidationResult(false, messageSourceService.get("invalid_token"));
 			}
 
-			return new TokenValidationResult(true, null, jwtToken);
+			return new TokenValidationResult(true, null, jwtToken, claims);
 		} catch (ExpiredJwtException e) {
 			log.error("[JWT] Token expired: {}", e.getMessage());
 			return new TokenValidationResult(false, messageSourceService.get("token_expired"));
@@ -180,27 +262,23 @@ public class JwtTokenProvider {
 	}
 
 	/**
-	 * Parsing token
+	 * Parsing token with the parser built once at startup
 	 *
 	 * @param token String jwt token to parse
 	 * @return Jws claims object
 	 */
 	private Jws<Claims> parseToken(final String token) {
-		return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token);
+		return jwtParser.parseSignedClaims(token);
 	}
 
-	private boolean isTokenExpired(final String token) {
-		return parseToken(token).getPayload().getExpiration().before(new Date());
+	private boolean isTokenExpired(final Claims claims) {
+		return claims.getExpiration().before(new Date());
 	}
 
 	private Date getExpireDate(final Long expires) {
 		return new Date(new Date().getTime() + expires);
 	}
 
-	private SecretKey getSigningKey() {
-		return Keys.hmacShaKeyFor(appSecret.getBytes());
-	}
-
 	// private void handleExpiredToken(ExpiredJwtException e, HttpServletRequest
 	// httpServletRequest,
 	// String accessDeniedMessage, String requestURI) {
@@ -231,15 +309,24 @@ public class JwtTokenProvider {
 		private final boolean valid;
 		private final String errorMessage;
 		private final JwtToken jwtToken;
+		private final Claims claims;
+		private final boolean reused;
 
 		public TokenValidationResult(boolean valid, String errorMessage) {
-			this(valid, errorMessage, null);
+			this(valid, errorMessage, null, null);
 		}
 
-		public TokenValidationResult(boolean valid, String errorMessage, JwtToken jwtToken) {
+		public TokenValidationResult(boolean valid, String errorMessage, JwtToken jwtToken, Claims claims) {
+			this(valid, errorMessage, jwtToken, claims, false);
+		}
+
+		public TokenValidationResult(boolean valid, String errorMessage, JwtToken jwtToken, Claims claims,
+				boolean reused) {
 			this.valid = valid;
 			this.errorMessage = errorMessage;
 			this.jwtToken = jwtToken;
+			this.claims = claims;
+			this.reused = reused;
 		}
 
 		public boolean isValid() {
@@ -253,5 +340,28 @@ public class JwtTokenProvider {
 		public JwtToken getJwtToken() {
 			return jwtToken;
 		}
+
+		/**
+		 * Verified claims of the validated token, null when validation failed
+		 *
+		 * @return Claims
+		 */
+		public Claims getClaims() {
+			return claims;
+		}
+
+		/**
+		 * Whether the token is a refresh token that was already rotated, its claims
+		 * are verified and kept to identify the user
+		 *
+		 * @return boolean
+		 */
+		public boolean isReused() {
+			return reused;
+		}
+
+		public String getUserId() {
+			return claims != null ? claims.getSubject() : null;
+		}
 	}
 }
@@ -10,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import com.securevault.main.entity.User;
 
+import io.jsonwebtoken.Claims;
 import lombok.Data;
 
 @Data
@@ -48,13 +49,34 @@ public class JwtUserDetails implements UserDetails {
 	 * @return
 	 */
 	public static JwtUserDetails create(final User user) {
-		List<GrantedAuthority> authorities = user.getRoles().stream()
-				.map(role -> new SimpleGrantedAuthority(role.getName().name()))
+		List<GrantedAuthority> authorities = user.getRoleNames().stream()
+				.map(SimpleGrantedAuthority::new)
 				.collect(Collectors.toList());
 
 		return new JwtUserDetails(user.getId().toString(), user.getEmail(), user.getMasterPasswordHash(), authorities);
 	}
 
+	/**
+	 * Create JwtUserDetails from the verified claims of an access token, null
+	 * when the token does not carry the email and role names
+	 *
+	 * @param claims Claims
+	 * @return JwtUserDetails
+	 */
+	public static JwtUserDetails create(final Claims claims) {
+		String email = claims.get(JwtTokenProvider.EMAIL_CLAIM, String.class);
+		Object roles = claims.get(JwtTokenProvider.ROLES_CLAIM);
+		if (email == null || !(roles instanceof Collection<?> roleNames)) {
+			return null;
+		}
+
+		List<GrantedAuthority> authorities = roleNames.stream()
+				.map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+				.collect(Collectors.toList());
+
+		return new JwtUserDetails(claims.getSubject(), email, null, authorities);
+	}
+
 	@Override
 	public boolean isAccountNonExpired() {
 		return true;
@@ -26,6 +26,8 @@ import com.securevault.main.exception.TokenReuseException;
 import com.securevault.main.exception.UnverifiedEmailException;
 import com.securevault.main.security.JwtTokenProvider;
 import com.securevault.main.security.JwtUserDetails;
+import com.securevault.main.service.ratelimit.LoginRateLimiter;
+import com.securevault.main.service.session.JwtTokenStore;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -58,10 +60,14 @@ public class AuthService {
 	private final HttpServletRequest httpServletRequest;
 	private final HttpServletResponse httpServletResponse;
 	private final MessageSourceService messageSourceService;
+	private final LoginRateLimiter loginRateLimiter;
 
 	public TokenResponse login(String email, final String masterPasswordHash, final Boolean rememberMe) {
 		log.info("Login request received for email: {}", email);
 
+		// Reject over-limit attempts before any database read or hash computation
+		loginRateLimiter.check(httpServletRequest.getRemoteAddr(), email);
+
 		try {
 			// Find user
 			User user = userService.findByEmail(email);
@@ -95,7 +101,7 @@ public class AuthService {
 				// Reset failed login attempts on successful login
 				userService.resetFailedLoginAttempts(email);
 
-				return generateAndStoreTokens(UUID.fromString(userDetails.getId()), rememberMe);
+				return generateAndStoreTokens(userDetails, rememberMe);
 			} catch (AuthenticationException e) {
 				// Increment failed login attempts
 				userService.incrementFailedLoginAttempts(email);
@@ -113,11 +119,25 @@ public class AuthService {
 		try {
 			// Validate refresh token and get validation result
 			JwtTokenProvider.TokenValidationResult validationResult = jwtTokenProvider.validateToken(refreshToken);
+			if (validationResult.isReused()) {
+				log.error("Rotated refresh token replayed for user: {}", validationResult.getUserId());
+				// Invalidate all user's tokens as a security measure
+				jwtTokenService.deleteAllByUserId(UUID.fromString(validationResult.getUserId()));
+				throw new TokenReuseException(messageSourceService.get("token_reuse_detected"));
+			}
+
 			if (!validationResult.isValid()) {
 				log.error("Invalid refresh token: {}", validationResult.getErrorMessage());
 				throw new InvalidTokenException(validationResult.getErrorMessage());
 			}
 
+			// Only a refresh token can be exchanged for new tokens
+			String tokenType = validationResult.getClaims().get(JwtTokenProvider.TOKEN_TYPE_CLAIM, String.class);
+			if (!JwtTokenProvider.REFRESH_TOKEN_TYPE.equals(tokenType)) {
+				log.error("Token of type {} presented for refresh", tokenType);
+				throw new InvalidTokenException(messageSourceService.get("invalid_refresh_token"));
+			}
+
 			// Get the validated token from the result
 			JwtToken existingToken = validationResult.getJwtToken();
 			if (existingToken == null) {
@@ -125,8 +145,8 @@ public class AuthService {
 				throw new InvalidTokenException(messageSourceService.get("invalid_refresh_token"));
 			}
 
-			// Get user from the validated token
-			User user = userService.findById(existingToken.getUserId());
+			// Get user from the claims verified during validation
+			User user = userService.findById(validationResult.getUserId());
 
 			// Check if user exists and is not locked
 			if (user.getLockedUntil() != null && user.getLockedUntil().isAfter(LocalDateTime.now())) {
@@ -134,25 +154,25 @@ public class AuthService {
 				throw new AccountLockedException(messageSourceService.get("account_locked"));
 			}
 
-			// Check if refresh token was already used
-			if (existingToken.getRefreshTokenUsedAt() != null) {
+			// Check, mark, delete the old session and store the new one in one atomic step
+			JwtToken newToken = buildTokens(JwtUserDetails.create(user), existingToken.getRememberMe());
+			JwtTokenStore.RotationStatus status = jwtTokenService.rotate(existingToken, newToken);
+
+			if (status == JwtTokenStore.RotationStatus.REUSED) {
 				log.error("Refresh token reuse detected for user: {}", user.getEmail());
 				// Invalidate all user's tokens as a security measure
 				jwtTokenService.deleteAllByUserId(user.getId());
 				throw new TokenReuseException(messageSourceService.get("token_reuse_detected"));
 			}
 
-			// Mark refresh token as used
-			existingToken.setRefreshTokenUsedAt(LocalDateTime.now());
-			jwtTokenService.save(existingToken);
-
-			// Generate and store new tokens
-			TokenResponse newTokens = generateAndStoreTokens(user.getId(), existingToken.getRememberMe());
+			if (status == JwtTokenStore.RotationStatus.NOT_FOUND) {
+				log.error("Refresh token session no longer exists for user: {}", user.getEmail());
+				throw new InvalidTokenException(messageSourceService.get("invalid_refresh_token"));
+			}
 
-			// Delete old token
-			jwtTokenService.delete(existingToken);
+			log.info("Tokens rotated for user: {}", user.getId());
 
-			return newTokens;
+			return tokenResponse(newToken);
 		} catch (NotFoundException e) {
 			log.error("User not found during token refresh");
 			throw new InvalidTokenException(messageSourceService.get("invalid_refresh_token"));
@@ -184,18 +204,30 @@ public class AuthService {
 
 	}
 
-	private TokenResponse generateAndStoreTokens(final UUID userId, final Boolean rememberMe) {
+	private TokenResponse generateAndStoreTokens(final JwtUserDetails userDetails, final Boolean rememberMe) {
+		JwtToken jwtToken = buildTokens(userDetails, rememberMe);
+
+		jwtTokenService.save(jwtToken);
+
+		log.info("Tokens generated for user: {}", userDetails.getId());
+
+		return tokenResponse(jwtToken);
+	}
+
+	private JwtToken buildTokens(final JwtUserDetails userDetails, final Boolean rememberMe) {
+		UUID userId = UUID.fromString(userDetails.getId());
+
 		// Set remember me if needed
 		if (rememberMe) {
 			jwtTokenProvider.setRememberMe();
 		}
 
 		// Generate tokens
-		String accessToken = jwtTokenProvider.generateJwt(userId.toString());
+		String accessToken = jwtTokenProvider.generateJwt(userDetails);
 		String refreshToken = jwtTokenProvider.generateRefresh(userId.toString());
 
-		// Create and save JWT token
-		JwtToken jwtToken = JwtToken.builder()
+		// Create JWT token
+		return JwtToken.builder()
 				.userId(userId)
 				.token(accessToken)
 				.refreshToken(refreshToken)
@@ -204,16 +236,14 @@ public class AuthService {
 				.userAgent(httpServletRequest.getHeader("User-Agent"))
 				.tokenTimeToLive(jwtTokenProvider.getRefreshTokenExpiresIn())
 				.build();
+	}
 
-		jwtTokenService.save(jwtToken);
-
-		log.info("Tokens generated for user: {}", userId);
-
+	private TokenResponse tokenResponse(final JwtToken jwtToken) {
 		// Set refresh token cookie
-		setRefreshTokenCookie(refreshToken);
+		setRefreshTokenCookie(jwtToken.getRefreshToken());
 
 		return TokenResponse.builder()
-				.token(accessToken)
+				.token(jwtToken.getToken())
 				.expiresIn(TokenExpiresInResponse.builder()
 						.token(jwtTokenProvider.getTokenExpiresIn())
 						.build())
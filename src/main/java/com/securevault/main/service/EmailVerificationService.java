@@ -57,7 +57,7 @@ public class EmailVerificationService {
 			throw new BadRequestException(messageSourceService.get("email_already_verified"));
 		}
 
-		EmailVerificationToken verificationToken = tokenRepository.findByToken(token)
+		EmailVerificationToken verificationToken = tokenRepository.findByTokenAndExpirationDateAfter(token, new Date())
 				.orElseThrow(() -> new NotFoundException(
 						messageSourceService.get("not_found_with_param",
 								new String[] { messageSourceService.get("token") })));
@@ -66,12 +66,6 @@ public class EmailVerificationService {
 			throw new BadRequestException(messageSourceService.get("invalid_verification"));
 		}
 
-		if (verificationToken.isExpired()) {
-			throw new BadRequestException(
-					messageSourceService.get("expired_with_param",
-							new String[] { messageSourceService.get("token") }));
-		}
-
 		userService.markEmailAsVerified(user);
 		tokenRepository.delete(verificationToken);
 
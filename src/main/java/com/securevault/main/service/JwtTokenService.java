@@ -1,13 +1,22 @@
 package com.securevault.main.service;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
 
+import com.securevault.main.dto.response.user.SessionResponse;
+import com.securevault.main.dto.response.user.SessionsResponse;
 import com.securevault.main.entity.JwtToken;
 import com.securevault.main.exception.NotFoundException;
+import com.securevault.main.exception.TokenReuseException;
 import com.securevault.main.repository.JwtTokenRepository;
+import com.securevault.main.service.session.JwtTokenCache;
+import com.securevault.main.service.session.JwtTokenRevocationList;
+import com.securevault.main.service.session.JwtTokenStore;
+import com.securevault.main.util.TokenDigestUtils;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,40 +27,166 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtTokenService {
 	private final JwtTokenRepository jwtTokenRepository;
 	private final MessageSourceService messageSourceService;
+	private final JwtTokenCache jwtTokenCache;
+	private final JwtTokenStore jwtTokenStore;
+	private final JwtTokenRevocationList jwtTokenRevocationList;
 
 	public JwtToken findByTokenOrRefreshToken(String token) {
-		return jwtTokenRepository.findByTokenOrRefreshToken(token, token).orElseThrow(() -> new NotFoundException(
+		return tryFindByTokenOrRefreshToken(token).orElseThrow(() -> new NotFoundException(
 				messageSourceService.get("not_found_with_param", new String[] { messageSourceService.get("token") })));
 	}
 
+	/**
+	 * Find session of a token whose signature and expiry are already verified.
+	 * Access token sessions are served from the near-cache when possible, refresh
+	 * token lookups always go to Redis so that reuse detection sees the latest
+	 * state.
+	 *
+	 * @param token     String verified token
+	 * @param expiresAt Date exp claim of the token
+	 * @return JwtToken
+	 */
+	public JwtToken findByTokenOrRefreshToken(String token, Date expiresAt) {
+		String digest = TokenDigestUtils.digest(token);
+
+		Optional<JwtToken> cached = jwtTokenCache.get(digest);
+		if (cached.isPresent()) {
+			return cached.get();
+		}
+
+		JwtToken jwtToken = jwtTokenStore.findByDigest(digest).orElseThrow(() -> new NotFoundException(
+				messageSourceService.get("not_found_with_param", new String[] { messageSourceService.get("token") })));
+		if (token.equals(jwtToken.getToken())) {
+			jwtTokenCache.put(digest, jwtToken, expiresAt);
+		}
+
+		return jwtToken;
+	}
+
 	public Optional<JwtToken> tryFindByTokenOrRefreshToken(String token) {
-		return jwtTokenRepository.findByTokenOrRefreshToken(token, token);
+		try {
+			return jwtTokenStore.findByDigest(TokenDigestUtils.digest(token));
+		} catch (TokenReuseException e) {
+			// A rotated refresh token has no session anymore
+			return Optional.empty();
+		}
 	}
 
 	public JwtToken findByUserIdAndRefreshToken(UUID id, String refreshToken) {
-		return jwtTokenRepository.findByUserIdAndRefreshToken(id, refreshToken).orElseThrow(() -> new NotFoundException(
-				messageSourceService.get("not_found_with_param", new String[] { messageSourceService.get("token") })));
+		return tryFindByTokenOrRefreshToken(refreshToken)
+				.filter(jwtToken -> id.equals(jwtToken.getUserId()) && refreshToken.equals(jwtToken.getRefreshToken()))
+				.orElseThrow(() -> new NotFoundException(
+						messageSourceService.get("not_found_with_param", new String[] { messageSourceService.get("token") })));
 	}
 
 	public boolean isValid(String token) {
-		return jwtTokenRepository.findByTokenOrRefreshToken(token, token)
+		return tryFindByTokenOrRefreshToken(token)
 				.map(jwtToken -> !jwtToken.isExpired())
 				.orElse(false);
 	}
 
 	public void save(JwtToken jwtToken) {
 		jwtTokenRepository.save(jwtToken);
+		jwtTokenStore.saveSessionKeys(jwtToken, jwtToken.getTokenTimeToLive());
+		jwtTokenCache.invalidate(jwtToken);
 		log.info("Saved token for user: {}", jwtToken.getUserId());
 	}
 
+	/**
+	 * Replace a session by a new one on refresh in one atomic step
+	 *
+	 * @param jwtToken JwtToken session being refreshed
+	 * @param newToken JwtToken new session
+	 * @return RotationStatus
+	 */
+	public JwtTokenStore.RotationStatus rotate(JwtToken jwtToken, JwtToken newToken) {
+		if (newToken.getId() == null) {
+			newToken.setId(UUID.randomUUID());
+		}
+
+		JwtTokenStore.RotationStatus status = jwtTokenStore.rotate(jwtToken, newToken);
+		if (status == JwtTokenStore.RotationStatus.ROTATED) {
+			jwtTokenCache.invalidate(jwtToken);
+			jwtTokenRevocationList.revokeToken(jwtToken.getToken());
+			log.info("Rotated token for user: {}", jwtToken.getUserId());
+		}
+
+		return status;
+	}
+
 	public void delete(JwtToken jwtToken) {
 		jwtTokenRepository.delete(jwtToken);
+		jwtTokenStore.deleteSessionKeys(jwtToken);
+		jwtTokenCache.invalidate(jwtToken);
+		jwtTokenRevocationList.revokeToken(jwtToken.getToken());
 		log.info("Deleted token: {}", jwtToken);
 	}
 
 	public void deleteAllByUserId(UUID userId) {
 		log.info("Deleting all tokens for user: {}", userId);
-		jwtTokenRepository.deleteAllByUserId(userId);
+		List<String> deleted = jwtTokenStore.deleteAllByUserId(userId);
+		jwtTokenCache.invalidateUser(userId);
+		jwtTokenRevocationList.revokeUser(userId);
+		// Tokens issued in the second of the revocation are not covered by the user entry
+		deleted.forEach(jwtTokenRevocationList::revokeToken);
+		log.info("Deleted {} tokens for user: {}", deleted.size(), userId);
+	}
+
+	/**
+	 * List a page of the active sessions of a user
+	 *
+	 * @param userId           UUID
+	 * @param page             int zero based page
+	 * @param size             int page size
+	 * @param currentSessionId UUID session of the caller, flagged in the list
+	 * @return SessionsResponse
+	 */
+	public SessionsResponse findSessions(UUID userId, int page, int size, UUID currentSessionId) {
+		JwtTokenStore.SessionPage sessionPage = jwtTokenStore.findSessions(userId, page, size);
+
+		return SessionsResponse.builder()
+				.page(page)
+				.size(size)
+				.total(sessionPage.total())
+				.sessions(sessionPage.sessions().stream()
+						.<SessionResponse>map(session -> SessionResponse.builder()
+								.id(session.id())
+								.ipAddress(session.ipAddress())
+								.userAgent(session.userAgent())
+								.rememberMe(session.rememberMe())
+								.expiresAt(new Date(session.expiresAt()))
+								.current(session.id().equals(currentSessionId))
+								.build())
+						.toList())
+				.build();
 	}
 
+	/**
+	 * Revoke a single session of a user
+	 *
+	 * @param userId    UUID owner of the session
+	 * @param sessionId UUID
+	 */
+	public void deleteByUserIdAndId(UUID userId, UUID sessionId) {
+		JwtToken jwtToken = jwtTokenRepository.findById(sessionId)
+				.filter(session -> userId.equals(session.getUserId()))
+				.orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
+						new String[] { messageSourceService.get("session") })));
+
+		delete(jwtToken);
+	}
+
+	/**
+	 * Revoke every session of a user but the given one
+	 *
+	 * @param userId        UUID
+	 * @param keepSessionId UUID session to keep
+	 */
+	public void deleteAllByUserIdExcept(UUID userId, UUID keepSessionId) {
+		log.info("Deleting other tokens for user: {}", userId);
+		List<String> deleted = jwtTokenStore.deleteAllByUserId(userId, keepSessionId);
+		jwtTokenCache.invalidateUser(userId);
+		deleted.forEach(jwtTokenRevocationList::revokeToken);
+		log.info("Deleted {} other tokens for user: {}", deleted.size(), userId);
+	}
 }
@@ -1,5 +1,11 @@
 package com.securevault.main.service;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.securevault.main.entity.Role;
@@ -8,13 +14,22 @@ import com.securevault.main.repository.RoleRepository;
 import com.securevault.main.util.Constants;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Role definitions are served from an in-memory snapshot of the roles
+ * collection. It is loaded by RoleInitializer, reloaded whenever a role is
+ * saved and periodically to pick up changes made by other nodes.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RoleService {
 	private final RoleRepository roleRepository;
 	private final MessageSourceService messageSourceService;
 
+	private volatile Map<Constants.RoleEnum, Role> roles = Map.of();
+
 	/**
 	 * Find by role name.
 	 * 
@@ -22,8 +37,16 @@ public class RoleService {
 	 * @return
 	 */
 	public Role findByName(final Constants.RoleEnum name) {
-		return roleRepository.findByName(name)
+		Role role = roles.get(name);
+		if (role != null) {
+			return role;
+		}
+
+		role = roleRepository.findByName(name)
 				.orElseThrow(() -> new NotFoundException(messageSourceService.get("{role_not_found}")));
+		refreshCache();
+
+		return role;
 	}
 
 	/**
@@ -33,7 +56,31 @@ public class RoleService {
 	 * @return
 	 */
 	public Role create(final Role role) {
-		return roleRepository.save(role);
+		Role saved = roleRepository.save(role);
+		refreshCache();
+
+		return saved;
+	}
+
+	/**
+	 * Reload the role snapshot from the database
+	 */
+	public void refreshCache() {
+		roles = roleRepository.findAll().stream()
+				.filter(role -> Objects.nonNull(role.getName()))
+				.collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity(), (first, second) -> first));
+
+		log.debug("Role cache loaded with {} roles", roles.size());
+	}
+
+	@Scheduled(fixedDelayString = "${app.role-cache.refresh-interval:300000}",
+			initialDelayString = "${app.role-cache.refresh-interval:300000}")
+	public void scheduledRefresh() {
+		try {
+			refreshCache();
+		} catch (Exception e) {
+			log.warn("Could not refresh role cache: {}", e.getMessage());
+		}
 	}
 
 }
@@ -1,9 +1,22 @@
 package com.securevault.main.service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,6 +33,7 @@ import com.securevault.main.exception.BadRequestException;
 import com.securevault.main.exception.NotFoundException;
 import com.securevault.main.repository.UserRepository;
 import com.securevault.main.security.JwtUserDetails;
+import com.securevault.main.service.session.JwtTokenRevocationList;
 import com.securevault.main.util.Constants;
 
 import lombok.RequiredArgsConstructor;
@@ -31,10 +45,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UserService implements UserDetailsService {
 	private static final int DEFAULT_KDF_ITERATIONS = 600000;
+	private static final int MAX_FAILED_LOGIN_ATTEMPTS = 5;
+	private static final Duration LOCK_DURATION = Duration.ofMinutes(30);
+	private static final String FAILED_LOGIN_ATTEMPTS_FIELD = "failedLoginAttempts";
+	private static final String LOCKED_UNTIL_FIELD = "lockedUntil";
 	private final UserRepository userRepository;
 	private final RoleService roleService;
 	private final MessageSourceService messageSourceService;
 	private final PasswordEncoder passwordEncoder;
+	private final MongoTemplate mongoTemplate;
+	private final JwtTokenRevocationList jwtTokenRevocationList;
 
 	@Override
 	public UserDetails loadUserByUsername(final String email) {
@@ -133,7 +153,7 @@ public class UserService implements UserDetailsService {
 			user.setMasterPasswordHint(request.getMasterPasswordHint());
 			user.setUserKey(request.getUserKey());
 			user.setKdfIterations(request.getKdfIterations() != null ? request.getKdfIterations() : DEFAULT_KDF_ITERATIONS);
-			user.setRoles(List.of(roleService.findByName(Constants.RoleEnum.USER)));
+			user.setRoleNames(List.of(roleService.findByName(Constants.RoleEnum.USER).getName().name()));
 
 			// Save updated user
 			userRepository.save(user);
@@ -147,22 +167,54 @@ public class UserService implements UserDetailsService {
 		}
 	}
 
+	/**
+	 * Count a failed login and lock the account once the limit is reached, in a
+	 * single atomic update so that concurrent attempts are all counted.
+	 */
 	public void incrementFailedLoginAttempts(String email) {
-		User user = findByEmail(email);
-		user.setFailedLoginAttempts(user.getFailedLoginAttempts() + 1);
-
-		if (user.getFailedLoginAttempts() >= 5) {
-			user.setLockedUntil(LocalDateTime.now().plusMinutes(30));
+		AggregationExpression attempts = ArithmeticOperators
+				.valueOf(ConditionalOperators.ifNull(FAILED_LOGIN_ATTEMPTS_FIELD).then(0))
+				.add(1);
+		Date lockedUntil = Date.from(Instant.now().plus(LOCK_DURATION));
+
+		// Stages run in order, so the second one sees the incremented count
+		AggregationUpdate update = AggregationUpdate.update()
+				.set(FAILED_LOGIN_ATTEMPTS_FIELD).toValue(attempts)
+				.set(LOCKED_UNTIL_FIELD).toValue(ConditionalOperators
+						.when(ComparisonOperators.valueOf(FAILED_LOGIN_ATTEMPTS_FIELD)
+								.greaterThanEqualToValue(MAX_FAILED_LOGIN_ATTEMPTS))
+						.then(lockedUntil)
+						.otherwiseValueOf(LOCKED_UNTIL_FIELD));
+
+		Query query = Query.query(Criteria.where("email").is(email));
+		query.fields().include(FAILED_LOGIN_ATTEMPTS_FIELD, LOCKED_UNTIL_FIELD);
+
+		User user = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+				User.class);
+		if (user == null) {
+			throw new NotFoundException(
+					messageSourceService.get("not_found_with_param", new String[] { messageSourceService.get("user") }));
 		}
 
-		userRepository.save(user);
+		// Every attempt past the limit applies the lock again
+		if (user.getFailedLoginAttempts() >= MAX_FAILED_LOGIN_ATTEMPTS) {
+			log.warn("Account locked until {} after {} failed login attempts: {}", user.getLockedUntil(),
+					user.getFailedLoginAttempts(), email);
+			// Stateless access tokens would otherwise keep working through the lock
+			jwtTokenRevocationList.revokeUser(user.getId());
+		}
 	}
 
+	/**
+	 * Clear failed logins, writing only when there is something to clear
+	 */
 	public void resetFailedLoginAttempts(String email) {
-		User user = findByEmail(email);
-		user.setFailedLoginAttempts(0);
-		user.setLockedUntil(null);
-		userRepository.save(user);
+		Query query = Query.query(Criteria.where("email").is(email)
+				.orOperator(Criteria.where(FAILED_LOGIN_ATTEMPTS_FIELD).ne(0),
+						Criteria.where(LOCKED_UNTIL_FIELD).ne(null)));
+
+		mongoTemplate.updateFirst(query,
+				new Update().set(FAILED_LOGIN_ATTEMPTS_FIELD, 0).unset(LOCKED_UNTIL_FIELD), User.class);
 	}
 
 }
@@ -0,0 +1,253 @@
+package com.securevault.main.service.expiration;
+
+import static com.securevault.main.service.expiration.RedisScripts.bytes;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coordinates cleanup runs of several replicas through Redis leases.
+ * 
+ * The keyspace is split into shards and every shard has its own lease, so at
+ * most one node cleans a shard at a time while different nodes clean different
+ * shards in parallel. A lease carries a fencing token taken from a counter,
+ * cursor writes are rejected once the lease was lost, and the lease is renewed
+ * while the run makes progress.
+ * 
+ * Shards partition the keyspace by the first character of the indexed value
+ * (index keys) or entity id (main sets). Ids and indexed values are mostly
+ * UUIDs, so hex digits are spread over the shards and every other character
+ * belongs to the last shard.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisCleanupCoordinator {
+
+    static final String LEASE_KEY_PREFIX = "redis_cleanup:lease:";
+
+    static final String FENCING_KEY = "redis_cleanup:fencing";
+
+    static final String CURSORS_KEY_PREFIX = "redis_cleanup:cursors:";
+
+    private static final String SHARD_CHARACTERS = "0123456789abcdef";
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/cleanup-lease-acquire.lua"), Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/cleanup-lease-renew.lua"), Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/cleanup-lease-release.lua"), Long.class);
+
+    private static final RedisScript<Long> SAVE_CURSOR_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/cleanup-cursor-save.lua"), Long.class);
+
+    private final RedisCleanupProperties cleanupProperties;
+
+    private final String ownerId = UUID.randomUUID().toString();
+
+    /**
+     * Acquire the lease of the first free shard, starting from a random shard so
+     * that replicas spread over the shards
+     * 
+     * @param connection Connection of the current run
+     * @return Acquired lease, or null when every shard is being cleaned
+     */
+    public Lease acquire(RedisConnection connection) {
+        int shards = getShards();
+        int offset = ThreadLocalRandom.current().nextInt(shards);
+        long ttl = cleanupProperties.getLeaseTtl().toMillis();
+
+        for (int i = 0; i < shards; i++) {
+            int shard = (offset + i) % shards;
+            String leaseKey = LEASE_KEY_PREFIX + shard;
+
+            Long token = RedisScripts.eval(connection, ACQUIRE_SCRIPT, ReturnType.INTEGER, 2, bytes(leaseKey),
+                    bytes(FENCING_KEY), bytes(ownerId), bytes(String.valueOf(ttl)));
+
+            if (token != null && token > 0) {
+                log.debug("Acquired cleanup lease of shard {}/{} with fencing token {}", shard, shards, token);
+                return new Lease(shard, shards, leaseKey, ownerId + ":" + token, token,
+                        System.currentTimeMillis() + ttl);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Renew the lease once half of its time to live has passed
+     * 
+     * @param connection Connection of the current run
+     * @param lease      Lease of the current run
+     * @return Whether the lease is still held
+     */
+    public boolean renewIfDue(RedisConnection connection, Lease lease) {
+        if (lease.isLost()) {
+            return false;
+        }
+
+        long ttl = cleanupProperties.getLeaseTtl().toMillis();
+        if (lease.getExpiresAt() - System.currentTimeMillis() > ttl / 2) {
+            return true;
+        }
+
+        Long renewed = RedisScripts.eval(connection, RENEW_SCRIPT, ReturnType.INTEGER, 1, bytes(lease.getKey()),
+                bytes(lease.getValue()), bytes(String.valueOf(ttl)));
+
+        if (renewed == null || renewed == 0) {
+            lease.markLost();
+            log.warn("Cleanup lease of shard {} was lost", lease.getShard());
+            return false;
+        }
+
+        lease.renewed(System.currentTimeMillis() + ttl);
+        return true;
+    }
+
+    /**
+     * Persist a cursor of the shard, only while the lease is still held
+     * 
+     * @param connection Connection of the current run
+     * @param lease      Lease of the current run
+     * @param field      Cursor field (hashName:fieldName)
+     * @param cursor     Cursor to persist
+     * @return Whether the cursor was persisted
+     */
+    public boolean saveCursor(RedisConnection connection, Lease lease, String field, String cursor) {
+        Long saved = RedisScripts.eval(connection, SAVE_CURSOR_SCRIPT, ReturnType.INTEGER, 2, bytes(lease.getKey()),
+                bytes(lease.getCursorsKey()), bytes(lease.getValue()), bytes(field), bytes(cursor));
+
+        if (saved == null || saved == 0) {
+            lease.markLost();
+            log.warn("Cleanup lease of shard {} was lost, cursor {} not saved", lease.getShard(), field);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Release the lease so that the next run may take the shard right away
+     * 
+     * @param connection Connection of the current run
+     * @param lease      Lease of the current run
+     */
+    public void release(RedisConnection connection, Lease lease) {
+        try {
+            RedisScripts.eval(connection, RELEASE_SCRIPT, ReturnType.INTEGER, 1, bytes(lease.getKey()),
+                    bytes(lease.getValue()));
+        } catch (Exception e) {
+            // The lease expires on its own
+            log.warn("Could not release cleanup lease of shard {}: {}", lease.getShard(), e.getMessage());
+        }
+    }
+
+    private int getShards() {
+        return Math.min(Math.max(1, cleanupProperties.getShards()), SHARD_CHARACTERS.length());
+    }
+
+    /**
+     * Glob character class matching the first character of the keys of a shard
+     * 
+     * @param shard  Shard number
+     * @param shards Number of shards
+     * @return Character class, or an empty string when there is a single shard
+     */
+    static String shardCharacterClass(int shard, int shards) {
+        if (shards <= 1) {
+            return "";
+        }
+
+        StringBuilder characters = new StringBuilder();
+        for (int i = 0; i < SHARD_CHARACTERS.length(); i++) {
+            boolean ownCharacter = i % shards == shard;
+            // The last shard takes every character not owned by the others
+            if (shard == shards - 1 ? !ownCharacter : ownCharacter) {
+                characters.append(SHARD_CHARACTERS.charAt(i));
+            }
+        }
+
+        return shard == shards - 1 ? "[^" + characters + "]" : "[" + characters + "]";
+    }
+
+    /**
+     * Lease of a cleanup shard
+     */
+    public static class Lease {
+        private final int shard;
+        private final int shards;
+        private final String key;
+        private final String value;
+        private final long fencingToken;
+        private volatile long expiresAt;
+        private volatile boolean lost = false;
+
+        public Lease(int shard, int shards, String key, String value, long fencingToken, long expiresAt) {
+            this.shard = shard;
+            this.shards = shards;
+            this.key = key;
+            this.value = value;
+            this.fencingToken = fencingToken;
+            this.expiresAt = expiresAt;
+        }
+
+        public int getShard() {
+            return shard;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isLost() {
+            return lost;
+        }
+
+        void renewed(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        void markLost() {
+            this.lost = true;
+        }
+
+        /**
+         * Hash holding the SCAN cursor of every indexed field of the shard
+         */
+        public String getCursorsKey() {
+            return CURSORS_KEY_PREFIX + shard;
+        }
+
+        /**
+         * Glob pattern matching the keys of the shard that start with the given
+         * prefix
+         */
+        public String pattern(String prefix) {
+            return prefix + shardCharacterClass(shard, shards) + "*";
+        }
+    }
+}
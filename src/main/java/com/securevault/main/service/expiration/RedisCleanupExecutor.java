@@ -0,0 +1,82 @@
+package com.securevault.main.service.expiration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs cleanup tasks on a bounded pool of platform threads and limits the
+ * number of cleanup commands in flight against Redis across all tasks
+ */
+@Slf4j
+@Component
+public class RedisCleanupExecutor {
+
+    private final ExecutorService executorService;
+    private final Semaphore inFlightCommands;
+
+    public RedisCleanupExecutor(RedisCleanupProperties cleanupProperties) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(Math.max(1, cleanupProperties.getParallelism()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "redis-cleanup-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.inFlightCommands = new Semaphore(Math.max(1, cleanupProperties.getMaxInFlightCommands()), true);
+    }
+
+    /**
+     * Run the tasks in parallel and wait for all of them
+     * 
+     * @param tasks Tasks to run
+     * @return Results of the tasks, in task order
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) throws InterruptedException {
+        List<T> results = new ArrayList<>(tasks.size());
+
+        for (Future<T> future : executorService.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Cleanup task failed", e.getCause());
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Issue a command once a slot of the in-flight command limit is free
+     * 
+     * @param command Command to issue
+     * @return Command reply
+     */
+    public <T> T command(Supplier<T> command) {
+        inFlightCommands.acquireUninterruptibly();
+        try {
+            return command.get();
+        } finally {
+            inFlightCommands.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.debug("Shutting down Redis cleanup executor");
+        executorService.shutdownNow();
+    }
+}
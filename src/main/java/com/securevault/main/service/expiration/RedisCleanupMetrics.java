@@ -0,0 +1,157 @@
+package com.securevault.main.service.expiration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters of the Redis cleanup sweep.
+ *
+ * Runs are timed by outcome, and every task of a run is timed and counted per
+ * entity hash and indexed field, the main set of an entity being reported as
+ * the {@value #MAIN_SET_FIELD} field. Redis commands issued by the sweep are
+ * timed per command with a percentile histogram, so their latency can be put
+ * next to the token validation latency of the same period.
+ *
+ * {@value #LAST_SUCCESS} holds the epoch second of the last run that
+ * completed without errors, to alert when cleanup falls behind.
+ */
+@Component
+public class RedisCleanupMetrics {
+
+    static final String RUN = "redis.cleanup.run";
+    static final String TASK = "redis.cleanup.task";
+    static final String KEYS_SCANNED = "redis.cleanup.keys.scanned";
+    static final String MEMBERS_CHECKED = "redis.cleanup.members.checked";
+    static final String ENTRIES_REMOVED = "redis.cleanup.entries.removed";
+    static final String ERRORS = "redis.cleanup.errors";
+    static final String COMMAND = "redis.cleanup.command";
+    static final String REDIS_LATENCY = "redis.cleanup.redis.latency";
+    static final String LAST_SUCCESS = "redis.cleanup.last.success";
+    static final String INTERVAL = "redis.cleanup.interval";
+    static final String TIME_BUDGET = "redis.cleanup.time.budget";
+
+    /**
+     * Field tag of the main set of an entity
+     */
+    static final String MAIN_SET_FIELD = "_main";
+
+    static final String OUTCOME_COMPLETED = "completed";
+    static final String OUTCOME_BUDGET_EXHAUSTED = "budget_exhausted";
+    static final String OUTCOME_FAILED = "failed";
+    static final String OUTCOME_SKIPPED = "skipped";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong lastSuccess = new AtomicLong();
+
+    public RedisCleanupMetrics(MeterRegistry meterRegistry, RedisCleanupPacer cleanupPacer) {
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder(LAST_SUCCESS, lastSuccess, AtomicLong::get)
+                .description("Epoch second of the last Redis cleanup run without errors")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder(INTERVAL, cleanupPacer, pacer -> pacer.getInterval().toMillis() / 1000.0)
+                .description("Current interval between Redis cleanup runs")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder(TIME_BUDGET, cleanupPacer, pacer -> pacer.getTimeBudget().toMillis() / 1000.0)
+                .description("Current time budget of a Redis cleanup run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a finished run
+     *
+     * @param result Result of the run
+     */
+    public void recordRun(RedisCleanupService.CleanupResult result) {
+        Timer.builder(RUN)
+                .description("Duration of Redis cleanup runs")
+                .tag("outcome", outcome(result))
+                .register(meterRegistry)
+                .record(result.getDurationMs(), TimeUnit.MILLISECONDS);
+
+        if (result.isSkipped()) {
+            return;
+        }
+
+        Timer.builder(REDIS_LATENCY)
+                .description("Latency of the slowest Redis command of a cleanup run")
+                .register(meterRegistry)
+                .record(result.getMaxLatencyMs(), TimeUnit.MILLISECONDS);
+
+        if (result.getErrors() == 0) {
+            lastSuccess.set(System.currentTimeMillis() / 1000);
+        }
+    }
+
+    /**
+     * Record a finished task of a run
+     *
+     * @param hashName     Hash name of the entity
+     * @param field        Indexed field, or {@value #MAIN_SET_FIELD}
+     * @param result       Partial result of the task
+     * @param cleaned      Number of removed entries
+     * @param durationNano Duration of the task in nanoseconds
+     */
+    public void recordTask(String hashName, String field, RedisCleanupService.CleanupResult result, int cleaned,
+            long durationNano) {
+        Timer.builder(TASK)
+                .description("Duration of Redis cleanup tasks")
+                .tags("entity", hashName, "field", field)
+                .register(meterRegistry)
+                .record(durationNano, TimeUnit.NANOSECONDS);
+
+        counter(KEYS_SCANNED, "Index keys visited by Redis cleanup", hashName, field)
+                .increment(result.getKeysScanned());
+        counter(MEMBERS_CHECKED, "Set members checked by Redis cleanup", hashName, field)
+                .increment(result.getMembersChecked());
+        counter(ENTRIES_REMOVED, "Stale entries removed by Redis cleanup", hashName, field)
+                .increment(cleaned);
+        counter(ERRORS, "Errors of Redis cleanup tasks", hashName, field)
+                .increment(result.getErrors());
+    }
+
+    /**
+     * Issue a Redis command of the sweep and time it
+     *
+     * @param command  Command name, e.g. "scan"
+     * @param hashName Hash name of the entity
+     * @param supplier Command to issue
+     * @return Command reply
+     */
+    public <T> T timeCommand(String command, String hashName, Supplier<T> supplier) {
+        return Timer.builder(COMMAND)
+                .description("Latency of Redis commands issued by cleanup")
+                .tags("command", command, "entity", hashName)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(supplier);
+    }
+
+    private Counter counter(String name, String description, String hashName, String field) {
+        return Counter.builder(name)
+                .description(description)
+                .tags("entity", hashName, "field", field)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(RedisCleanupService.CleanupResult result) {
+        if (result.isSkipped()) {
+            return OUTCOME_SKIPPED;
+        }
+        if (result.getErrors() > 0) {
+            return OUTCOME_FAILED;
+        }
+        return result.isBudgetExhausted() ? OUTCOME_BUDGET_EXHAUSTED : OUTCOME_COMPLETED;
+    }
+}
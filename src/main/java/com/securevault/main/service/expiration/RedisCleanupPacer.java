@@ -0,0 +1,82 @@
+package com.securevault.main.service.expiration;
+
+import java.time.Duration;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adapts the interval between cleanup runs and the time budget of a run to what
+ * the previous run measured.
+ * 
+ * Cleanup backs off when a command of the run answered slowly or the run
+ * failed, speeds up with a larger budget when the share of stale set members
+ * is high, and slows down with the configured budget when next to nothing was
+ * stale. The interval
+ * stays within the configured floor and ceiling.
+ */
+@Slf4j
+@Component
+public class RedisCleanupPacer {
+
+    private final RedisCleanupProperties cleanupProperties;
+
+    private Duration interval;
+    private Duration timeBudget;
+
+    public RedisCleanupPacer(RedisCleanupProperties cleanupProperties) {
+        this.cleanupProperties = cleanupProperties;
+        this.interval = cleanupProperties.getInterval();
+        this.timeBudget = cleanupProperties.getTimeBudget();
+    }
+
+    public synchronized Duration getInterval() {
+        return clamp(interval, cleanupProperties.getMinInterval(), cleanupProperties.getMaxInterval());
+    }
+
+    public synchronized Duration getTimeBudget() {
+        return clamp(timeBudget, cleanupProperties.getTimeBudget(), cleanupProperties.getMaxTimeBudget());
+    }
+
+    /**
+     * Adapt interval and time budget to the result of the last run
+     * 
+     * @param result Result of the last run
+     */
+    public synchronized void record(RedisCleanupService.CleanupResult result) {
+        if (result.isSkipped()) {
+            // Another node did the work, nothing was measured
+            return;
+        }
+
+        double orphanRatio = result.getOrphanRatio();
+        boolean redisBusy = result.getMaxLatencyMs() >= cleanupProperties.getLatencyThreshold().toMillis();
+
+        if (redisBusy || result.getErrors() > 0) {
+            interval = interval.multipliedBy(2);
+            timeBudget = timeBudget.dividedBy(2);
+        } else if (orphanRatio >= cleanupProperties.getHighOrphanRatio()
+                || (result.isBudgetExhausted() && orphanRatio > cleanupProperties.getLowOrphanRatio())) {
+            interval = interval.dividedBy(2);
+            timeBudget = timeBudget.multipliedBy(2);
+        } else if (orphanRatio <= cleanupProperties.getLowOrphanRatio()) {
+            interval = interval.multipliedBy(3).dividedBy(2);
+            timeBudget = cleanupProperties.getTimeBudget();
+        }
+
+        interval = getInterval();
+        timeBudget = getTimeBudget();
+
+        log.debug("Cleanup paced to {}s interval, {}ms budget (orphan ratio {}, latency {}ms, {} entries per entity)",
+                interval.toSeconds(), timeBudget.toMillis(), orphanRatio, result.getMaxLatencyMs(),
+                result.getEntitiesProcessed() > 0 ? result.getIndexEntriesCleaned() / result.getEntitiesProcessed() : 0);
+    }
+
+    private static Duration clamp(Duration value, Duration min, Duration max) {
+        if (value.compareTo(min) < 0) {
+            return min;
+        }
+        return value.compareTo(max) > 0 ? max : value;
+    }
+}
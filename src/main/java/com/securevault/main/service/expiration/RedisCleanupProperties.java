@@ -0,0 +1,112 @@
+package com.securevault.main.service.expiration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the Redis cleanup engine
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.redis.cleanup")
+public class RedisCleanupProperties {
+
+    /**
+     * Interval between cleanup runs until the first run was measured
+     * Default: 10 minutes
+     */
+    private Duration interval = Duration.ofMinutes(10);
+
+    /**
+     * Shortest interval the adaptive scheduling may choose
+     * Default: 1 minute
+     */
+    private Duration minInterval = Duration.ofMinutes(1);
+
+    /**
+     * Longest interval the adaptive scheduling may choose
+     * Default: 1 hour
+     */
+    private Duration maxInterval = Duration.ofHours(1);
+
+    /**
+     * COUNT hint passed to every SCAN step
+     * Default: 500
+     */
+    private int scanCount = 500;
+
+    /**
+     * COUNT hint of the SSCAN chunk reconciled by each cleanup script call
+     * Default: 500
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum time a single cleanup run may spend walking the keyspace. When
+     * exhausted, cursors are persisted and the next run resumes from them.
+     * Default: 5 seconds
+     */
+    private Duration timeBudget = Duration.ofSeconds(5);
+
+    /**
+     * Largest time budget the adaptive scheduling may give a run when orphans pile
+     * up
+     * Default: 30 seconds
+     */
+    private Duration maxTimeBudget = Duration.ofSeconds(30);
+
+    /**
+     * Latency of the slowest Redis command of a run above which cleanup backs
+     * off
+     * Default: 50 milliseconds
+     */
+    private Duration latencyThreshold = Duration.ofMillis(50);
+
+    /**
+     * Share of stale set members above which cleanup speeds up
+     * Default: 0.05
+     */
+    private double highOrphanRatio = 0.05;
+
+    /**
+     * Share of stale set members below which cleanup slows down
+     * Default: 0.001
+     */
+    private double lowOrphanRatio = 0.001;
+
+    /**
+     * Remove ids of expired entities from their index sets as soon as the expired
+     * key event arrives, leaving the periodic sweep as a safety net
+     * Default: true
+     */
+    private boolean expirationEvents = true;
+
+    /**
+     * Number of shards the keyspace is split into. Every shard has its own lease,
+     * so up to this many replicas clean up in parallel. Capped at 16.
+     * Default: 1
+     */
+    private int shards = 1;
+
+    /**
+     * Time to live of a cleanup lease, renewed while a run makes progress
+     * Default: 30 seconds
+     */
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /**
+     * Number of threads cleaning main sets and indexed fields in parallel
+     * Default: 4
+     */
+    private int parallelism = 4;
+
+    /**
+     * Maximum number of cleanup commands in flight against Redis at once
+     * Default: 4
+     */
+    private int maxInFlightCommands = 4;
+}
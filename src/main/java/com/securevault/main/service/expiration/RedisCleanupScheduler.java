@@ -1,7 +1,10 @@
 package com.securevault.main.service.expiration;
 
+import java.time.Instant;
+
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
@@ -10,15 +13,20 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Scheduled task for cleaning up Redis indexed fields.
- * Runs every 10 minutes by default and can be configured via properties.
+ * Runs every 10 minutes at first, then {@link RedisCleanupPacer} adapts the
+ * interval and time budget of each run to what the previous run measured.
+ * Expired entities are normally cleaned up right away by
+ * {@link RedisKeyExpirationListener}, this sweep is the safety net for missed
+ * events.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class RedisCleanupScheduler {
+public class RedisCleanupScheduler implements SchedulingConfigurer {
 
     private final RedisCleanupService redisCleanupService;
     private final RedisEntityDiscoveryService redisEntityDiscoveryService;
+    private final RedisCleanupPacer redisCleanupPacer;
 
     @Value("${app.redis.cleanup.enabled:true}")
     private boolean cleanupEnabled;
@@ -35,17 +43,29 @@ public class RedisCleanupScheduler {
                 cleanupEnabled, cleanupInterval, cleanupInterval / 1000);
 
         if (cleanupEnabled) {
-            log.info("Scheduled Redis cleanup will run every {} seconds", cleanupInterval / 1000);
+            log.info("Scheduled Redis cleanup will run every {} seconds at first", cleanupInterval / 1000);
         } else {
             log.warn("Redis cleanup is DISABLED. No automatic cleanup will occur.");
         }
     }
 
+    /**
+     * Schedule each run after the interval chosen by the pacer, counted from the
+     * completion of the previous run
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::scheduledCleanup, triggerContext -> {
+            Instant lastCompletion = triggerContext.lastCompletion();
+            return lastCompletion == null ? Instant.now() : lastCompletion.plus(redisCleanupPacer.getInterval());
+        });
+    }
+
     /**
      * Scheduled task to perform Redis index cleanup.
-     * Runs every 10 minutes by default, configurable via app.redis.cleanup.interval
+     * Runs at the adaptive interval of the pacer, starting from
+     * app.redis.cleanup.interval
      */
-    @Scheduled(fixedRateString = "${app.redis.cleanup.interval:600000}")
     public void scheduledCleanup() {
         log.debug("Scheduled cleanup triggered. Enabled: {}, Interval: {}ms", cleanupEnabled, cleanupInterval);
 
@@ -60,12 +80,16 @@ public class RedisCleanupScheduler {
             long startTime = System.currentTimeMillis();
 
             // Perform the cleanup
-            RedisCleanupService.CleanupResult result = redisCleanupService.performCleanup();
+            RedisCleanupService.CleanupResult result = redisCleanupService
+                    .performCleanup(redisCleanupPacer.getTimeBudget());
+            redisCleanupPacer.record(result);
 
             long duration = System.currentTimeMillis() - startTime;
 
             // Log the results
-            if (result.getErrors() > 0) {
+            if (result.isSkipped()) {
+                log.debug("Scheduled cleanup skipped, every shard is being cleaned by another node");
+            } else if (result.getErrors() > 0) {
                 log.warn(
                         "Scheduled cleanup completed with {} errors. Processed {} entities, cleaned {} entries in {}ms",
                         result.getErrors(), result.getEntitiesProcessed(), result.getIndexEntriesCleaned(), duration);
@@ -1,12 +1,24 @@
 package com.securevault.main.service.expiration;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.Set;
+import static com.securevault.main.service.expiration.RedisScripts.bytes;
+import static com.securevault.main.service.expiration.RedisScripts.string;
 
-import org.springframework.data.redis.connection.DataType;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
@@ -20,6 +32,24 @@ import lombok.extern.slf4j.Slf4j;
  * The cleanup process is performed in two phases:
  * 1. Cleanup of stale entity hashes and update main set
  * 2. Cleanup of indexed fields
+ *
+ * Index keys are walked with SCAN instead of KEYS, within the time budget of a
+ * run. Cursors are persisted in Redis so the next run resumes where the last
+ * one stopped, and a new pass only starts once every indexed field finished
+ * the current one.
+ *
+ * Sets are reconciled on the server by a cached script that checks one bounded
+ * SSCAN chunk per call, so set members never travel to the JVM. Main sets and
+ * indexed fields are cleaned in parallel on {@link RedisCleanupExecutor}, which
+ * also bounds the number of commands in flight.
+ *
+ * A run only cleans the shard whose lease it holds, see
+ * {@link RedisCleanupCoordinator}. When every shard is being cleaned by other
+ * replicas the run is skipped.
+ *
+ * Runs, tasks and the Redis commands they issue are published as meters by
+ * {@link RedisCleanupMetrics}. The slowest command of a run is its latency,
+ * which {@link RedisCleanupPacer} backs off on.
  */
 @Slf4j
 @Service
@@ -28,13 +58,25 @@ public class RedisCleanupService {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedisEntityDiscoveryService redisEntityDiscoveryService;
+    private final RedisCleanupProperties cleanupProperties;
+    private final RedisCleanupCoordinator cleanupCoordinator;
+    private final RedisCleanupExecutor cleanupExecutor;
+    private final RedisCleanupMetrics cleanupMetrics;
 
     /**
-     * Suffix used in Redis key naming convention to denote indexed fields.
-     * For example, a field index key will be named as
-     * <hashName>:<fieldName>:idx.
+     * Cursor value of an indexed field that finished the current pass
      */
-    private static final String IDX_SUFFIX = ":idx";
+    static final String CURSOR_DONE = "done";
+
+    private static final String CURSOR_START = "0";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCAN_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/scan.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECONCILE_SET_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/reconcile-set.lua"), List.class);
 
     /**
      * Perform cleanup of stale Redis indexed data
@@ -42,35 +84,30 @@ public class RedisCleanupService {
      * indexed fields
      */
     public CleanupResult performCleanup() {
+        return performCleanup(cleanupProperties.getTimeBudget());
+    }
+
+    /**
+     * Perform cleanup of stale Redis indexed data within the given time budget
+     * 
+     * @param timeBudget Maximum time the run may spend walking the keyspace
+     */
+    public CleanupResult performCleanup(Duration timeBudget) {
         CleanupResult result = new CleanupResult();
 
         try {
             log.debug("Starting Redis cleanup...");
 
-            // Discover all Redis entities using the dedicated discovery service
-            redisEntityDiscoveryService.discoverRedisEntities();
-
-            // Get entities that need cleanup
+            // Get entities that need cleanup from the discovery snapshot
             Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entitiesToClean = redisEntityDiscoveryService
                     .getEntitiesNeedingCleanup();
 
-            // Clean up each entity that needs cleanup
-            for (Map.Entry<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entry : entitiesToClean.entrySet()) {
-                Class<?> entityClass = entry.getKey();
-                RedisEntityDiscoveryService.EntityMetadata metadata = entry.getValue();
-
-                try {
-                    int cleaned = cleanupEntity(entityClass, metadata);
-                    if (cleaned > 0) {
-                        result.incrementEntitiesProcessed();
-                        result.addCleanedEntries(cleaned);
-                        log.debug("Cleaned {} stale index entries for entity: {}",
-                                cleaned, entityClass.getSimpleName());
-                    }
-                } catch (Exception e) {
-                    log.error("Error cleaning up entity: {}", entityClass.getSimpleName(), e);
-                    result.incrementErrors();
-                }
+            if (!entitiesToClean.isEmpty()) {
+                // One connection for the whole run
+                redisTemplate.execute((RedisCallback<Void>) connection -> {
+                    cleanupShard(connection, entitiesToClean, timeBudget, result);
+                    return null;
+                });
             }
 
             log.debug("Redis cleanup completed. Processed {} entities, cleaned {} entries",
@@ -81,246 +118,352 @@ public class RedisCleanupService {
             result.incrementErrors();
         }
 
+        cleanupMetrics.recordRun(result);
         return result;
     }
 
+    private void cleanupShard(RedisConnection connection,
+            Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entitiesToClean, Duration timeBudget,
+            CleanupResult result) {
+        RedisCleanupCoordinator.Lease lease = cleanupCoordinator.acquire(connection);
+        if (lease == null) {
+            log.debug("Every cleanup shard is being cleaned by another node, skipping run");
+            result.markSkipped();
+            return;
+        }
+
+        try {
+            long deadline = System.currentTimeMillis() + timeBudget.toMillis();
+            CleanupRun run = new CleanupRun(connection, lease, deadline, result, new ConcurrentHashMap<>());
+            loadCursors(run, entitiesToClean);
+            cleanupEntities(run, entitiesToClean);
+        } finally {
+            cleanupCoordinator.release(connection, lease);
+        }
+    }
+
     /**
-     * Clean up a specific entity type
+     * Clean up the main set and every indexed field of every entity as separate
+     * tasks on the cleanup executor, each on its own connection, and merge their
+     * results. They touch disjoint keys, so the run takes as long as its largest
+     * set or index rather than the sum of all of them.
      * 
-     * @param entityClass The entity class
-     * @param metadata    Entity metadata
-     * @return Number of cleaned index entries
+     * @param run             The current run
+     * @param entitiesToClean Entities that need cleanup
      */
-    private int cleanupEntity(Class<?> entityClass, RedisEntityDiscoveryService.EntityMetadata metadata) {
-        try {
-            int totalCleaned = 0;
-            String hashName = metadata.getHashName();
+    private void cleanupEntities(CleanupRun run,
+            Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entitiesToClean) {
+        List<Callable<TaskResult>> tasks = new ArrayList<>();
+
+        for (Map.Entry<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entry : entitiesToClean.entrySet()) {
+            Class<?> entityClass = entry.getKey();
+            String hashName = entry.getValue().getHashName();
 
             // Clean up stale entity hashes and update main set
-            totalCleaned += cleanupStaleEntityHashes(hashName);
+            tasks.add(task(run, entityClass, hashName, RedisCleanupMetrics.MAIN_SET_FIELD,
+                    taskRun -> cleanupStaleEntityHashes(taskRun, hashName)));
 
             // Clean up indexed fields
-            for (String fieldName : metadata.getIndexedFieldNames()) {
-                try {
-                    int cleaned = cleanupIndexedField(hashName, fieldName);
-                    totalCleaned += cleaned;
-                } catch (Exception e) {
-                    log.warn("Error cleaning up indexed field: {}", fieldName, e);
-                }
+            for (String fieldName : entry.getValue().getIndexedFieldNames()) {
+                tasks.add(task(run, entityClass, hashName, fieldName,
+                        taskRun -> cleanupIndexedField(taskRun, hashName, fieldName)));
             }
+        }
 
-            return totalCleaned;
+        List<TaskResult> taskResults;
+        try {
+            taskResults = cleanupExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Redis cleanup interrupted");
+            run.result.incrementErrors();
+            return;
+        }
 
-        } catch (Exception e) {
-            log.error("Error cleaning up entity: {}", entityClass.getSimpleName(), e);
-            return 0;
+        Map<Class<?>, Integer> cleanedPerEntity = new LinkedHashMap<>();
+        for (TaskResult taskResult : taskResults) {
+            run.result.merge(taskResult.result());
+            cleanedPerEntity.merge(taskResult.entityClass(), taskResult.cleaned(), Integer::sum);
         }
+
+        cleanedPerEntity.forEach((entityClass, cleaned) -> {
+            if (cleaned > 0) {
+                run.result.incrementEntitiesProcessed();
+                run.result.addCleanedEntries(cleaned);
+                log.debug("Cleaned {} stale index entries for entity: {}",
+                        cleaned, entityClass.getSimpleName());
+            }
+        });
     }
 
-    private RedisConnectionFactory getConnectionFactoryOrWarn() {
-        RedisConnectionFactory connectionFactory = redisTemplate.getConnectionFactory();
-        if (connectionFactory == null) {
-            log.warn("Redis connection factory is null, skipping entity hash cleanup");
-            return null;
-        }
-        return connectionFactory;
+    /**
+     * Wrap a piece of cleanup work of an entity into a task with its own
+     * connection and result, recorded under the hash name and field of the work
+     */
+    private Callable<TaskResult> task(CleanupRun run, Class<?> entityClass, String hashName, String field,
+            ToIntFunction<CleanupRun> work) {
+        return () -> {
+            CleanupResult taskResult = new CleanupResult();
+            Integer cleaned = 0;
+            long start = System.nanoTime();
+
+            try {
+                cleaned = redisTemplate.execute((RedisCallback<Integer>) connection -> {
+                    CleanupRun taskRun = run.forTask(connection, taskResult);
+                    return canContinue(taskRun) ? work.applyAsInt(taskRun) : 0;
+                });
+            } catch (Exception e) {
+                log.error("Error cleaning up entity: {}", entityClass.getSimpleName(), e);
+                taskResult.incrementErrors();
+            }
+
+            int cleanedEntries = cleaned != null ? cleaned : 0;
+            cleanupMetrics.recordTask(hashName, field, taskResult, cleanedEntries, System.nanoTime() - start);
+            return new TaskResult(entityClass, cleanedEntries, taskResult);
+        };
     }
 
     /**
      * Clean up stale entity hashes and remove their IDs from the main set
      * 
+     * @param run      The current run
      * @param hashName The hash name (e.g., "jwt_tokens")
      * @return Number of cleaned entries
      */
-    private int cleanupStaleEntityHashes(String hashName) {
-        int totalCleaned = 0;
-
+    private int cleanupStaleEntityHashes(CleanupRun run, String hashName) {
         try {
-            // Get connection factory
-            RedisConnectionFactory connectionFactory = getConnectionFactoryOrWarn();
-            if (connectionFactory == null) {
-                return 0;
-            }
-
-            // Get all entity IDs from the main set
-            Set<byte[]> entityIdBytes = connectionFactory
-                    .getConnection()
-                    .setCommands()
-                    .sMembers(hashName.getBytes(StandardCharsets.UTF_8));
+            return cleanupSetMembers(run, hashName, hashName, true);
+        } catch (Exception e) {
+            log.warn("Error cleaning up entity hashes: {}", hashName, e);
+            return 0;
+        }
+    }
 
-            if (entityIdBytes == null || entityIdBytes.isEmpty()) {
-                return 0;
-            }
+    /**
+     * Clean up indexed fields by removing stale entity IDs from index sets.
+     * Index keys are visited with SCAN, resuming from the persisted cursor, until
+     * the pass finishes or the time budget of the run is exhausted.
+     * 
+     * @param run       The current run
+     * @param hashName  The hash name (e.g., "jwt_tokens")
+     * @param fieldName The field name (e.g., "userId")
+     * @return Number of cleaned index entries
+     */
+    private int cleanupIndexedField(CleanupRun run, String hashName, String fieldName) {
+        int totalCleaned = 0;
+        String field = cursorField(hashName, fieldName);
+        String cursor = run.cursors.getOrDefault(field, CURSOR_START);
 
-            // Check each entity ID to see if the corresponding entity hash is expired
-            for (byte[] entityIdByteArray : entityIdBytes) {
-                String entityId = new String(entityIdByteArray);
-                String entityHashKey = hashName + ":" + entityId + IDX_SUFFIX;
+        if (CURSOR_DONE.equals(cursor)) {
+            return 0;
+        }
 
-                // Check if the entity hash key exists
-                Boolean exists = redisTemplate.hasKey(entityHashKey);
+        try {
+            // Spring Data Redis index key pattern: hashName:fieldName:value
+            String indexKeyPattern = run.lease.pattern(hashName + ":" + fieldName + ":");
 
-                // If the key doesn't exist, remove from main set
-                if (exists != null && !exists) {
-                    // Remove from main set
-                    Long removed = connectionFactory
-                            .getConnection()
-                            .setCommands()
-                            .sRem(hashName.getBytes(), entityIdByteArray);
+            do {
+                ScanPage page = scan(run, hashName, indexKeyPattern, cursor);
+                run.result.addKeysScanned(page.keys().size());
 
-                    if (removed != null && removed > 0) {
-                        totalCleaned += removed;
-                    }
-                }
-                // If the key exists, check if it's empty (all internal data expired)
-                else if (exists != null && exists) {
+                for (String indexKey : page.keys()) {
                     try {
-                        // First check the type of the key
-                        DataType keyTypeResult = connectionFactory
-                                .getConnection()
-                                .keyCommands()
-                                .type(entityHashKey.getBytes(StandardCharsets.UTF_8));
-
-                        if (keyTypeResult == null) {
-                            log.warn("Could not determine type for key: {}", entityHashKey);
-                            continue;
-                        }
-
-                        if (keyTypeResult == DataType.SET) {
-                            // For SET type, check if the corresponding hash table exists
-                            // Extract entity ID from the key (e.g., "jwt_tokens:UUID:idx" ->
-                            // "jwt_tokens:UUID")
-                            String[] parts = entityHashKey.split(":");
-                            if (parts != null && parts.length >= 2) {
-                                String setId = parts[1];
-                                String correspondingHashKey = hashName + ":" + setId;
-
-                                // Check if the corresponding hash table exists
-                                Boolean hashExists = redisTemplate.hasKey(correspondingHashKey);
-
-                                if (hashExists != null && !hashExists) {
-                                    // The corresponding hash table doesn't exist (expired), remove the set
-                                    Boolean deleted = redisTemplate.delete(entityHashKey);
-                                    if (deleted != null && deleted) {
-                                        log.debug("Removed stale entity set: {} (corresponding hash expired)",
-                                                entityHashKey);
-                                    }
-
-                                    // Remove from main set
-                                    Long removed = connectionFactory
-                                            .getConnection()
-                                            .setCommands()
-                                            .sRem(hashName.getBytes(), entityIdByteArray);
-
-                                    if (removed != null && removed > 0) {
-                                        totalCleaned += removed;
-                                    }
-                                }
-                            }
-                        } else {
-                            log.warn("Entity key {} is of unsupported type: {}, skipping", entityHashKey,
-                                    keyTypeResult);
-                        }
+                        // Redis removes a set once its last member is removed
+                        totalCleaned += cleanupSetMembers(run, hashName, indexKey, false);
                     } catch (Exception e) {
-                        log.warn("Error checking entity hash key {}: {}", entityHashKey, e.getMessage());
+                        log.warn("Error processing index key: {}", indexKey, e);
                     }
                 }
-            }
+
+                cursor = page.cursor();
+            } while (!CURSOR_START.equals(cursor) && canContinue(run));
+
+            saveCursor(run, field, CURSOR_START.equals(cursor) ? CURSOR_DONE : cursor);
 
         } catch (Exception e) {
-            log.warn("Error cleaning up entity hashes: {}", hashName, e);
+            log.warn("Error cleaning up indexed field: {}", fieldName, e);
         }
 
         return totalCleaned;
     }
 
     /**
-     * Clean up indexed fields by removing stale entity IDs from index sets
+     * Reconcile a set of entity IDs on the server, one bounded SSCAN chunk per
+     * script call, removing the IDs whose entity hash no longer exists
      * 
-     * @param hashName  The hash name (e.g., "jwt_tokens")
-     * @param fieldName The field name (e.g., "userId")
-     * @return Number of cleaned index entries
+     * @param run      The current run
+     * @param hashName The hash name (e.g., "jwt_tokens")
+     * @param setKey   The main set or index set to clean
+     * @param mainSet  Whether setKey is the main set of the entity
+     * @return Number of removed members
      */
-    private int cleanupIndexedField(String hashName, String fieldName) {
+    private int cleanupSetMembers(CleanupRun run, String hashName, String setKey, boolean mainSet) {
         int totalCleaned = 0;
-        try {
-            // Get all index keys for this field (Spring Data Redis pattern:
-            // hashName:fieldName:value)
-            String indexKeyPattern = hashName + ":" + fieldName + ":*";
-            Set<String> indexKeys = redisTemplate.keys(indexKeyPattern);
-
-            if (indexKeys == null || indexKeys.isEmpty()) {
-                return 0;
+        String cursor = CURSOR_START;
+        byte[] batchSize = bytes(String.valueOf(Math.max(1, cleanupProperties.getBatchSize())));
+        // Index sets belong to the shard of their key, main sets are split by member
+        byte[] memberPattern = bytes(mainSet ? run.lease.pattern("") : "*");
+
+        do {
+            String setCursor = cursor;
+            List<Object> reply = command(run, "reconcile", hashName,
+                    () -> RedisScripts.eval(run.connection, RECONCILE_SET_SCRIPT, ReturnType.MULTI, 1,
+                            bytes(setKey), bytes(setCursor), batchSize, bytes(hashName), bytes(mainSet ? "1" : "0"),
+                            memberPattern));
+
+            if (reply == null || reply.size() < 3) {
+                break;
             }
 
-            // Get connection factory once for this field
-            RedisConnectionFactory connectionFactory = getConnectionFactoryOrWarn();
-            if (connectionFactory == null) {
-                return 0;
+            cursor = string((byte[]) reply.get(0));
+            run.result.addMembersChecked(((Number) reply.get(1)).longValue());
+            totalCleaned += ((Number) reply.get(2)).intValue();
+        } while (!CURSOR_START.equals(cursor) && canContinue(run));
+
+        return totalCleaned;
+    }
+
+    /**
+     * Issue a Redis command of the run within the in-flight limit, timing it for
+     * the command meter and the latency of the run. The wait for an in-flight
+     * slot is not part of the latency.
+     * 
+     * @param run      The current run
+     * @param command  Command name, e.g. "scan"
+     * @param hashName Hash name of the entity
+     * @param supplier Command to issue
+     * @return Command reply
+     */
+    private <T> T command(CleanupRun run, String command, String hashName, Supplier<T> supplier) {
+        return cleanupExecutor.command(() -> cleanupMetrics.timeCommand(command, hashName, () -> {
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                run.result.recordLatency((System.nanoTime() - start) / 1_000_000);
             }
+        }));
+    }
 
-            for (String indexKey : indexKeys) {
-                try {
-                    // Get all entity IDs in this index set
-                    Set<byte[]> entityIdBytes = connectionFactory
-                            .getConnection()
-                            .setCommands()
-                            .sMembers(indexKey.getBytes(StandardCharsets.UTF_8));
-
-                    if (entityIdBytes == null || entityIdBytes.isEmpty()) {
-                        // Index set is already empty, remove the index key
-                        Boolean deleted = redisTemplate.delete(indexKey);
-                        if (deleted != null && deleted) {
-                            totalCleaned += 1;
-                        }
-                        continue;
-                    }
+    /**
+     * Whether the run may issue more work: its time budget is not exhausted and
+     * its lease, renewed when due, is still held
+     */
+    private boolean canContinue(CleanupRun run) {
+        if (System.currentTimeMillis() >= run.deadline) {
+            run.result.markBudgetExhausted();
+            return false;
+        }
 
-                    // Check each entity ID to see if the corresponding entity hash still exists
-                    for (byte[] entityIdByteArray : entityIdBytes) {
-                        String entityId = new String(entityIdByteArray);
-                        String entityHashKey = hashName + ":" + entityId;
-
-                        // Check if the entity hash key exists
-                        Boolean exists = redisTemplate.hasKey(entityHashKey);
-
-                        if (exists != null && !exists) {
-                            // Entity hash doesn't exist (expired), remove from index set
-                            Long removed = connectionFactory
-                                    .getConnection()
-                                    .setCommands()
-                                    .sRem(indexKey.getBytes(StandardCharsets.UTF_8), entityIdByteArray);
-
-                            if (removed != null && removed > 0) {
-                                totalCleaned += removed;
-                            }
-                        }
-                    }
+        return cleanupCoordinator.renewIfDue(run.connection, run.lease);
+    }
 
-                    // After cleanup, check if the index set is now empty and remove it if so
-                    Set<byte[]> remainingEntityIds = connectionFactory
-                            .getConnection()
-                            .setCommands()
-                            .sMembers(indexKey.getBytes());
-
-                    if (remainingEntityIds == null || remainingEntityIds.isEmpty()) {
-                        // Index set is now empty after cleanup, remove the index key
-                        Boolean deleted = redisTemplate.delete(indexKey);
-                        if (deleted != null && deleted) {
-                            totalCleaned += 1;
-                        }
-                    }
+    /**
+     * Load SCAN cursors of the current pass of the shard. When every indexed
+     * field finished the previous pass, a new pass starts from the beginning of
+     * the keyspace.
+     * 
+     * @param run             The current run
+     * @param entitiesToClean Entities that need cleanup
+     */
+    private void loadCursors(CleanupRun run,
+            Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entitiesToClean) {
+        byte[] cursorsKey = bytes(run.lease.getCursorsKey());
 
-                } catch (Exception e) {
-                    log.warn("Error processing index key: {}", indexKey, e);
-                }
+        try {
+            Map<byte[], byte[]> entries = run.connection.hashCommands().hGetAll(cursorsKey);
+            if (entries != null) {
+                entries.forEach((field, cursor) -> run.cursors.put(string(field), string(cursor)));
             }
+        } catch (Exception e) {
+            log.warn("Could not load cleanup cursors, starting a new pass: {}", e.getMessage());
+            return;
+        }
 
+        boolean passFinished = entitiesToClean.values().stream()
+                .flatMap(metadata -> metadata.getIndexedFieldNames().stream()
+                        .map(fieldName -> cursorField(metadata.getHashName(), fieldName)))
+                .allMatch(field -> CURSOR_DONE.equals(run.cursors.get(field)));
+
+        if (passFinished && !run.cursors.isEmpty()) {
+            run.connection.keyCommands().del(cursorsKey);
+            run.cursors.clear();
+        }
+    }
+
+    private void saveCursor(CleanupRun run, String field, String cursor) {
+        run.cursors.put(field, cursor);
+        try {
+            cleanupCoordinator.saveCursor(run.connection, run.lease, field, cursor);
         } catch (Exception e) {
-            log.warn("Error cleaning up indexed field: {}", fieldName, e);
+            log.warn("Could not persist cleanup cursor for {}: {}", field, e.getMessage());
         }
+    }
 
-        return totalCleaned;
+    private static String cursorField(String hashName, String fieldName) {
+        return hashName + ":" + fieldName;
+    }
+
+    /**
+     * Run a single SCAN step from the given cursor
+     * 
+     * @param run      The current run
+     * @param hashName Hash name of the scanned index keys
+     * @param pattern  MATCH pattern
+     * @param cursor   Cursor to resume from
+     * @return SCAN reply holding the next cursor and the matched keys
+     */
+    @SuppressWarnings("unchecked")
+    private ScanPage scan(CleanupRun run, String hashName, String pattern, String cursor) {
+        List<Object> reply = command(run, "scan", hashName,
+                () -> RedisScripts.eval(run.connection, SCAN_SCRIPT, ReturnType.MULTI, 0, bytes(cursor),
+                        bytes(pattern), bytes(String.valueOf(cleanupProperties.getScanCount()))));
+
+        if (reply == null || reply.size() < 2) {
+            return new ScanPage(CURSOR_START, List.of());
+        }
+
+        List<String> keys = ((List<byte[]>) reply.get(1)).stream().map(RedisScripts::string).toList();
+        return new ScanPage(string((byte[]) reply.get(0)), keys);
+    }
+
+    /**
+     * State of a single cleanup run, or of one of its tasks
+     */
+    private static final class CleanupRun {
+        private final RedisConnection connection;
+        private final RedisCleanupCoordinator.Lease lease;
+        private final long deadline;
+        private final CleanupResult result;
+        private final Map<String, String> cursors;
+
+        private CleanupRun(RedisConnection connection, RedisCleanupCoordinator.Lease lease, long deadline,
+                CleanupResult result, Map<String, String> cursors) {
+            this.connection = connection;
+            this.lease = lease;
+            this.deadline = deadline;
+            this.result = result;
+            this.cursors = cursors;
+        }
+
+        /**
+         * State of a task of the run, sharing lease, deadline and cursors
+         */
+        private CleanupRun forTask(RedisConnection taskConnection, CleanupResult taskResult) {
+            return new CleanupRun(taskConnection, lease, deadline, taskResult, cursors);
+        }
+    }
+
+    /**
+     * Outcome of a cleanup task
+     */
+    private record TaskResult(Class<?> entityClass, int cleaned, CleanupResult result) {
+    }
+
+    /**
+     * Single SCAN step reply
+     */
+    record ScanPage(String cursor, List<String> keys) {
     }
 
     /**
@@ -330,6 +473,11 @@ public class RedisCleanupService {
         private int entitiesProcessed = 0;
         private int indexEntriesCleaned = 0;
         private int errors = 0;
+        private long keysScanned = 0;
+        private long membersChecked = 0;
+        private boolean budgetExhausted = false;
+        private boolean skipped = false;
+        private long maxLatencyMs = 0;
         private long startTime = System.currentTimeMillis();
 
         public int getEntitiesProcessed() {
@@ -356,8 +504,79 @@ public class RedisCleanupService {
             this.errors += 1;
         }
 
+        public long getKeysScanned() {
+            return keysScanned;
+        }
+
+        public void addKeysScanned(long count) {
+            this.keysScanned += count;
+        }
+
+        public long getMembersChecked() {
+            return membersChecked;
+        }
+
+        public void addMembersChecked(long count) {
+            this.membersChecked += count;
+        }
+
+        /**
+         * Whether the run stopped because its time budget was exhausted, the next
+         * run resumes from the persisted cursors
+         */
+        public boolean isBudgetExhausted() {
+            return budgetExhausted;
+        }
+
+        public void markBudgetExhausted() {
+            this.budgetExhausted = true;
+        }
+
+        /**
+         * Whether the run was skipped because other nodes hold the lease of every
+         * shard
+         */
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        public void markSkipped() {
+            this.skipped = true;
+        }
+
+        /**
+         * Share of checked set members that were stale and removed
+         */
+        public double getOrphanRatio() {
+            return membersChecked == 0 ? 0 : (double) indexEntriesCleaned / membersChecked;
+        }
+
+        /**
+         * Highest latency of a Redis command issued by the run
+         */
+        public long getMaxLatencyMs() {
+            return maxLatencyMs;
+        }
+
+        public void recordLatency(long latencyMs) {
+            this.maxLatencyMs = Math.max(this.maxLatencyMs, latencyMs);
+        }
+
+        /**
+         * Merge the counters of a partial result, e.g. of a task of the run
+         */
+        public void merge(CleanupResult other) {
+            this.entitiesProcessed += other.entitiesProcessed;
+            this.indexEntriesCleaned += other.indexEntriesCleaned;
+            this.errors += other.errors;
+            this.keysScanned += other.keysScanned;
+            this.membersChecked += other.membersChecked;
+            this.budgetExhausted |= other.budgetExhausted;
+            this.maxLatencyMs = Math.max(this.maxLatencyMs, other.maxLatencyMs);
+        }
+
         public long getDurationMs() {
             return System.currentTimeMillis() - startTime;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.securevault.main.service.expiration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the Redis diagnostics
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.redis.diagnostics")
+public class RedisDiagnosticsProperties {
+
+    /**
+     * Number of set members and keys probed per entity for orphan ratios and
+     * MEMORY USAGE estimates
+     * Default: 100
+     */
+    private int sampleSize = 100;
+
+    /**
+     * Maximum number of keys SCAN may visit when counting index sets, counts
+     * beyond it are reported as incomplete
+     * Default: 10000
+     */
+    private int maxScanKeys = 10_000;
+
+    /**
+     * Number of RANDOMKEY probes used to estimate the keyspace share of each
+     * entity
+     * Default: 200
+     */
+    private int randomKeySamples = 200;
+}
@@ -0,0 +1,240 @@
+package com.securevault.main.service.expiration;
+
+import static com.securevault.main.service.expiration.RedisScripts.bytes;
+import static com.securevault.main.service.expiration.RedisScripts.string;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import com.securevault.main.dto.response.admin.RedisDiagnosticsResponse;
+import com.securevault.main.dto.response.admin.RedisEntityDiagnosticsResponse;
+import com.securevault.main.dto.response.admin.RedisKeyFamilyMemoryResponse;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Samples how much of Redis is live entity data and how much is stale index
+ * leftovers, for every entity found by {@link RedisEntityDiscoveryService}.
+ * 
+ * Everything is estimated from bounded samples so that running it in
+ * production stays cheap: SRANDMEMBER probes of main sets and index sets for
+ * orphan ratios, a SCAN capped at a maximum number of keys to count index
+ * sets, RANDOMKEY probes for the share of the keyspace, and MEMORY USAGE of
+ * sampled keys extrapolated to each key family.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisDiagnosticsService {
+
+    private static final String IDX_SUFFIX = ":idx";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisEntityDiscoveryService redisEntityDiscoveryService;
+    private final RedisDiagnosticsProperties diagnosticsProperties;
+
+    /**
+     * Sample every discovered Redis entity
+     * 
+     * @return Diagnostics of the keyspace and of every entity
+     */
+    public RedisDiagnosticsResponse diagnose() {
+        long startTime = System.currentTimeMillis();
+        Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> entities = redisEntityDiscoveryService
+                .getAllEntityMetadata();
+
+        return redisTemplate.execute((RedisCallback<RedisDiagnosticsResponse>) connection -> {
+            Long keyspaceSize = connection.serverCommands().dbSize();
+            List<String> randomKeys = sampleRandomKeys(connection);
+
+            List<RedisEntityDiagnosticsResponse> entityDiagnostics = entities.entrySet().stream()
+                    .sorted(Comparator.comparing(entry -> entry.getKey().getSimpleName()))
+                    .map(entry -> diagnoseEntity(connection, entry.getKey(), entry.getValue(), randomKeys))
+                    .toList();
+
+            return RedisDiagnosticsResponse.builder()
+                    .keyspaceSize(keyspaceSize)
+                    .randomKeySamples(randomKeys.size())
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .entities(entityDiagnostics)
+                    .build();
+        });
+    }
+
+    private RedisEntityDiagnosticsResponse diagnoseEntity(RedisConnection connection, Class<?> entityClass,
+            RedisEntityDiscoveryService.EntityMetadata metadata, List<String> randomKeys) {
+        String hashName = metadata.getHashName();
+        int sampleSize = Math.max(1, diagnosticsProperties.getSampleSize());
+
+        // Main set: cardinality and orphan ratio of sampled ids
+        Long mainSetCardinality = connection.setCommands().sCard(bytes(hashName));
+        List<String> sampledIds = toStrings(connection.setCommands().sRandMember(bytes(hashName), sampleSize));
+        List<Object> idExists = pipelined(connection, pipeline -> sampledIds
+                .forEach(id -> pipeline.keyCommands().exists(bytes(hashName + ":" + id))));
+        List<String> liveIds = new ArrayList<>();
+        for (int i = 0; i < sampledIds.size() && i < idExists.size(); i++) {
+            if (exists(idExists.get(i))) {
+                liveIds.add(sampledIds.get(i));
+            }
+        }
+
+        // Index sets: capped count and orphan ratio of one sampled member per set
+        IndexKeySample indexKeySample = sampleIndexKeys(connection, metadata, sampleSize);
+        List<Object> indexMembers = pipelined(connection, pipeline -> indexKeySample.sampledKeys()
+                .forEach(indexKey -> pipeline.setCommands().sRandMember(bytes(indexKey))));
+        List<Object> indexMemberExists = pipelined(connection, pipeline -> indexMembers.stream()
+                .filter(byte[].class::isInstance)
+                .forEach(member -> pipeline.keyCommands().exists(bytes(hashName + ":" + string((byte[]) member)))));
+
+        long keyspaceHits = randomKeys.stream()
+                .filter(key -> key.equals(hashName) || key.startsWith(hashName + ":"))
+                .count();
+
+        long entityHashes = mainSetCardinality != null ? mainSetCardinality : 0;
+        List<RedisKeyFamilyMemoryResponse> memory = List.of(
+                memory(connection, "entity hashes", hashName + ":<id>", entityHashes,
+                        liveIds.stream().map(id -> hashName + ":" + id).toList()),
+                memory(connection, "main set", hashName, 1, List.of(hashName)),
+                memory(connection, "index sets", hashName + ":<field>:<value>", indexKeySample.count(),
+                        indexKeySample.sampledKeys()),
+                memory(connection, "index helper sets", hashName + ":<id>" + IDX_SUFFIX, entityHashes,
+                        liveIds.stream().map(id -> hashName + ":" + id + IDX_SUFFIX).toList()));
+
+        return RedisEntityDiagnosticsResponse.builder()
+                .entity(entityClass.getSimpleName())
+                .hashName(hashName)
+                .mainSetCardinality(mainSetCardinality)
+                .mainSetOrphanRatio(ratio(sampledIds.size() - liveIds.size(), sampledIds.size()))
+                .indexSets(indexKeySample.count())
+                .indexSetsComplete(indexKeySample.complete())
+                .indexOrphanRatio(ratio(indexMemberExists.stream().filter(reply -> !exists(reply)).count(),
+                        indexMemberExists.size()))
+                .keyspaceShare(ratio(keyspaceHits, randomKeys.size()))
+                .memory(memory)
+                .build();
+    }
+
+    /**
+     * Count the index sets of an entity with SCAN, visiting at most the
+     * configured number of keys, and keep the first ones as sample
+     */
+    private IndexKeySample sampleIndexKeys(RedisConnection connection,
+            RedisEntityDiscoveryService.EntityMetadata metadata, int sampleSize) {
+        long count = 0;
+        boolean complete = true;
+        List<String> sampledKeys = new ArrayList<>();
+        int maxScanKeys = Math.max(1, diagnosticsProperties.getMaxScanKeys());
+
+        for (String fieldName : metadata.getIndexedFieldNames()) {
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(metadata.getHashName() + ":" + fieldName + ":*")
+                    .count(500)
+                    .build();
+
+            try (Cursor<byte[]> keys = connection.keyCommands().scan(options)) {
+                while (keys.hasNext()) {
+                    if (count >= maxScanKeys) {
+                        complete = false;
+                        break;
+                    }
+
+                    String key = string(keys.next());
+                    count++;
+                    if (sampledKeys.size() < sampleSize) {
+                        sampledKeys.add(key);
+                    }
+                }
+            }
+        }
+
+        return new IndexKeySample(count, complete, sampledKeys);
+    }
+
+    private List<String> sampleRandomKeys(RedisConnection connection) {
+        int samples = Math.max(0, diagnosticsProperties.getRandomKeySamples());
+        List<Object> replies = pipelined(connection, pipeline -> {
+            for (int i = 0; i < samples; i++) {
+                pipeline.keyCommands().randomKey();
+            }
+        });
+
+        return replies.stream()
+                .filter(byte[].class::isInstance)
+                .map(reply -> string((byte[]) reply))
+                .toList();
+    }
+
+    /**
+     * Estimate the memory of a key family from the MEMORY USAGE of sampled keys
+     */
+    private RedisKeyFamilyMemoryResponse memory(RedisConnection connection, String family, String pattern,
+            long keys, List<String> sampledKeys) {
+        List<Object> usages = pipelined(connection, pipeline -> sampledKeys
+                .forEach(key -> pipeline.execute("MEMORY", bytes("USAGE"), bytes(key))));
+
+        long measured = 0;
+        long totalBytes = 0;
+        for (Object usage : usages) {
+            if (usage instanceof Number bytes) {
+                measured++;
+                totalBytes += bytes.longValue();
+            }
+        }
+
+        long averageBytes = measured == 0 ? 0 : totalBytes / measured;
+
+        return RedisKeyFamilyMemoryResponse.builder()
+                .family(family)
+                .pattern(pattern)
+                .keys(keys)
+                .sampledKeys((int) measured)
+                .averageBytes(averageBytes)
+                .estimatedBytes(averageBytes * keys)
+                .build();
+    }
+
+    private static List<Object> pipelined(RedisConnection connection, Consumer<RedisConnection> commands) {
+        connection.openPipeline();
+        try {
+            commands.accept(connection);
+        } catch (RuntimeException e) {
+            connection.closePipeline();
+            throw e;
+        }
+
+        List<Object> replies = connection.closePipeline();
+        return replies != null ? replies : List.of();
+    }
+
+    private static List<String> toStrings(List<byte[]> values) {
+        return values == null ? List.of() : values.stream().map(RedisScripts::string).toList();
+    }
+
+    private static boolean exists(Object reply) {
+        if (reply instanceof Boolean exists) {
+            return exists;
+        }
+        return reply instanceof Number count && count.longValue() > 0;
+    }
+
+    private static Double ratio(long part, long total) {
+        return total == 0 ? null : (double) part / total;
+    }
+
+    /**
+     * Capped count of the index sets of an entity and the sampled ones
+     */
+    private record IndexKeySample(long count, boolean complete, List<String> sampledKeys) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.securevault.main.service.expiration;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -21,4 +22,12 @@ public class RedisEntityDiscoveryProperties {
      * Example: com.securevault.main.entity,com.securevault.other.entity
      */
     private List<String> packagePatterns = List.of("com.securevault.main.entity");
+
+    /**
+     * Index fields that entities no longer declare with @Indexed, per hash name.
+     * Their leftover index sets are removed once at startup, fields that are
+     * still indexed are never touched.
+     * Example: jwt_tokens: ipAddress,userAgent,rememberMe
+     */
+    private Map<String, List<String>> retiredIndexFields = Map.of();
 } 
\ No newline at end of file
@@ -1,11 +1,11 @@
 package com.securevault.main.service.expiration;
 
-import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
@@ -13,31 +13,63 @@ import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.data.redis.core.RedisHash;
-import org.springframework.data.redis.core.TimeToLive;
+import org.springframework.data.redis.core.index.IndexDefinition;
 import org.springframework.data.redis.core.index.Indexed;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ClassUtils;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service responsible for discovering Redis entities and extracting their
  * metadata.
- * This service scans the classpath for classes with @RedisHash annotation
- * and analyzes their TTL and indexed field configurations.
+ * Entity metadata is resolved from the Spring Data Redis mapping context once
+ * at startup and served from an immutable snapshot. Classes with @RedisHash
+ * annotation in the configured packages are added to the mapping context so
+ * that entities without a repository are found as well. The snapshot is only
+ * rebuilt when explicitly requested.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RedisEntityDiscoveryService {
 
-    // Cache of discovered entity metadata to avoid repeated reflection
-    private final Map<Class<?>, EntityMetadata> entityMetadataCache = new ConcurrentHashMap<>();
-
     // Configuration properties for Redis entity discovery
     private final RedisEntityDiscoveryProperties discoveryProperties;
 
+    // Mapping context of the Redis repositories
+    private final RedisMappingContext redisMappingContext;
+
+    // Immutable snapshot of discovered entity metadata, null until discovered
+    private volatile Snapshot snapshot;
+
+    /**
+     * Discovered entity metadata, with the entities that need cleanup resolved
+     * once per discovery
+     */
+    private record Snapshot(Map<Class<?>, EntityMetadata> entities,
+            Map<Class<?>, EntityMetadata> entitiesNeedingCleanup,
+            Map<String, EntityMetadata> entitiesNeedingCleanupByHashName) {
+
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of());
+
+        private static Snapshot of(Map<Class<?>, EntityMetadata> entities) {
+            Map<Class<?>, EntityMetadata> needingCleanup = entities.entrySet().stream()
+                    .filter(entry -> entry.getValue().needsCleanup())
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+            Map<String, EntityMetadata> byHashName = needingCleanup.values().stream()
+                    .collect(Collectors.toUnmodifiableMap(EntityMetadata::getHashName, metadata -> metadata,
+                            (first, second) -> first));
+
+            return new Snapshot(Map.copyOf(entities), needingCleanup, byHashName);
+        }
+    }
+
     /**
      * Entity metadata for cleanup operations
      */
@@ -48,7 +80,7 @@ public class RedisEntityDiscoveryService {
 
         public EntityMetadata(String hashName, Set<String> indexedFieldNames, boolean hasTtl) {
             this.hashName = hashName;
-            this.indexedFieldNames = indexedFieldNames;
+            this.indexedFieldNames = Set.copyOf(indexedFieldNames);
             this.hasTtl = hasTtl;
         }
 
@@ -70,50 +102,65 @@ public class RedisEntityDiscoveryService {
     }
 
     /**
-     * Discover all Redis entities in the classpath
-     * This method scans for classes with @RedisHash annotation and extracts their
-     * metadata
+     * Discover Redis entities once at startup
+     */
+    @PostConstruct
+    public void initialize() {
+        discoverRedisEntities();
+    }
+
+    /**
+     * Discover all Redis entities and replace the metadata snapshot
+     * This method is only meant for explicit reloads, the snapshot is built once at
+     * startup
      */
-    public void discoverRedisEntities() {
+    public synchronized void discoverRedisEntities() {
         try {
             log.debug("Discovering Redis entities...");
 
-            // Clear previous cache
-            entityMetadataCache.clear();
+            Set<Class<?>> entityClasses = new LinkedHashSet<>();
+            redisMappingContext.getPersistentEntities().forEach(entity -> entityClasses.add(entity.getType()));
 
+            // Scan each package pattern for Redis entities not known to the mapping context yet
+            for (String packagePattern : discoveryProperties.getPackagePatterns()) {
+                try {
+                    entityClasses.addAll(scanPackageForRedisEntities(packagePattern));
+                } catch (Exception e) {
+                    log.warn("Error scanning package: {}", packagePattern, e);
+                }
+            }
+
+            Map<Class<?>, EntityMetadata> discovered = new HashMap<>();
             int discoveredCount = 0;
 
-            // Scan each package pattern for Redis entities
-            for (String packagePattern : discoveryProperties.getPackagePatterns()) {
+            for (Class<?> entityClass : entityClasses) {
+                if (!entityClass.isAnnotationPresent(RedisHash.class)) {
+                    continue;
+                }
+
                 try {
-                    Set<Class<?>> redisEntities = scanPackageForRedisEntities(packagePattern);
-
-                    for (Class<?> entityClass : redisEntities) {
-                        try {
-                            EntityMetadata metadata = extractEntityMetadata(entityClass);
-                            entityMetadataCache.put(entityClass, metadata);
-
-                            if (metadata.needsCleanup()) {
-                                discoveredCount++;
-                                log.info(
-                                        "Discovered Redis entity for cleanup: {} (hash: {}, indexed fields: {}, has TTL: {})",
-                                        entityClass.getSimpleName(),
-                                        metadata.getHashName(),
-                                        metadata.getIndexedFieldNames().size(),
-                                        metadata.hasTtl());
-                            } else {
-                                log.debug("Discovered Redis entity (no cleanup needed): {} (hash: {})",
-                                        entityClass.getSimpleName(), metadata.getHashName());
-                            }
-                        } catch (Exception e) {
-                            log.warn("Error processing Redis entity: {}", entityClass.getName(), e);
-                        }
+                    EntityMetadata metadata = extractEntityMetadata(entityClass);
+                    discovered.put(entityClass, metadata);
+
+                    if (metadata.needsCleanup()) {
+                        discoveredCount++;
+                        log.info(
+                                "Discovered Redis entity for cleanup: {} (hash: {}, indexed fields: {}, has TTL: {})",
+                                entityClass.getSimpleName(),
+                                metadata.getHashName(),
+                                metadata.getIndexedFieldNames().size(),
+                                metadata.hasTtl());
+                    } else {
+                        log.debug("Discovered Redis entity (no cleanup needed): {} (hash: {})",
+                                entityClass.getSimpleName(), metadata.getHashName());
                     }
                 } catch (Exception e) {
-                    log.warn("Error scanning package: {}", packagePattern, e);
+                    log.warn("Error processing Redis entity: {}", entityClass.getName(), e);
                 }
             }
 
+            snapshot = Snapshot.of(discovered);
+
             log.info("Redis entity discovery completed. Found {} entities requiring cleanup.", discoveredCount);
 
         } catch (Exception e) {
@@ -121,6 +168,15 @@ public class RedisEntityDiscoveryService {
         }
     }
 
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            discoverRedisEntities();
+            current = snapshot;
+        }
+        return current != null ? current : Snapshot.EMPTY;
+    }
+
     /**
      * Scan a package for classes with @RedisHash annotation
      * 
@@ -160,41 +216,34 @@ public class RedisEntityDiscoveryService {
     }
 
     /**
-     * Extract metadata from a Redis entity class
+     * Extract metadata of a Redis entity class from the mapping context
      * 
      * @param entityClass The entity class to analyze
      * @return EntityMetadata containing information about the entity
      */
     public EntityMetadata extractEntityMetadata(Class<?> entityClass) {
-        Set<String> indexedFields = new HashSet<>();
-        boolean hasTtl = false;
-        String hashName = null;
-
-        // Get hash name from @RedisHash annotation
-        if (entityClass.isAnnotationPresent(RedisHash.class)) {
-            RedisHash redisHash = entityClass.getAnnotation(RedisHash.class);
-            hashName = redisHash.value();
-        }
+        RedisPersistentEntity<?> entity = redisMappingContext.getRequiredPersistentEntity(entityClass);
+        String hashName = entity.getKeySpace();
 
         log.debug("Processing entity: {}, Hash name: {}", entityClass.getSimpleName(), hashName);
 
-        // Check all fields including inherited ones
-        Class<?> currentClass = entityClass;
-        while (currentClass != null && currentClass != Object.class) {
-            for (Field field : currentClass.getDeclaredFields()) {
-                field.setAccessible(true);
-
-                if (field.isAnnotationPresent(Indexed.class)) {
-                    indexedFields.add(field.getName());
-                }
-
-                if (field.isAnnotationPresent(TimeToLive.class)) {
-                    hasTtl = true;
-                }
+        // Indexes declared with @Indexed and indexes configured programmatically
+        Set<String> indexedFields = new HashSet<>();
+        entity.doWithProperties((RedisPersistentProperty property) -> {
+            if (property.isAnnotationPresent(Indexed.class)) {
+                indexedFields.add(property.getName());
             }
-            currentClass = currentClass.getSuperclass();
+        });
+        if (hashName != null) {
+            indexedFields.addAll(redisMappingContext.getMappingConfiguration().getIndexConfiguration()
+                    .getIndexDefinitionsFor(hashName).stream()
+                    .map(IndexDefinition::getIndexName)
+                    .collect(Collectors.toSet()));
         }
 
+        // @TimeToLive property, @RedisHash(timeToLive) or keyspace configuration
+        boolean hasTtl = entity.isExpiring();
+
         log.debug("Entity: {}, Indexed fields: {}, Has TTL: {}",
                 entityClass.getSimpleName(), indexedFields, hasTtl);
 
@@ -207,7 +256,7 @@ public class RedisEntityDiscoveryService {
      * @return Map of entity classes to their metadata
      */
     public Map<Class<?>, EntityMetadata> getAllEntityMetadata() {
-        return new HashMap<>(entityMetadataCache);
+        return snapshot().entities();
     }
 
     /**
@@ -218,7 +267,7 @@ public class RedisEntityDiscoveryService {
     public Map<String, Map<String, Object>> getDiscoveredEntities() {
         Map<String, Map<String, Object>> result = new HashMap<>();
 
-        for (Map.Entry<Class<?>, EntityMetadata> entry : entityMetadataCache.entrySet()) {
+        for (Map.Entry<Class<?>, EntityMetadata> entry : snapshot().entities().entrySet()) {
             Class<?> entityClass = entry.getKey();
             EntityMetadata metadata = entry.getValue();
 
@@ -240,54 +289,25 @@ public class RedisEntityDiscoveryService {
      * @return Map of entity classes to their metadata
      */
     public Map<Class<?>, EntityMetadata> getEntitiesNeedingCleanup() {
-        Map<Class<?>, EntityMetadata> result = new HashMap<>();
-
-        for (Map.Entry<Class<?>, EntityMetadata> entry : entityMetadataCache.entrySet()) {
-            if (entry.getValue().needsCleanup()) {
-                result.put(entry.getKey(), entry.getValue());
-            }
-        }
-
-        return result;
+        return snapshot().entitiesNeedingCleanup();
     }
 
     /**
-     * Check if a class has TTL and indexed fields
+     * Get the entity that needs cleanup stored under the given hash name
      * 
-     * @param clazz The class to check
-     * @return true if the class has both TTL and indexed fields
+     * @param hashName The hash name (e.g., "jwt_tokens")
+     * @return Entity metadata, or null when no such entity needs cleanup
      */
-    public static boolean hasTtlAndIndexedFields(Class<?> clazz) {
-        boolean hasTtl = false;
-        boolean hasIndexed = false;
-
-        // Check all fields including inherited ones
-        Class<?> currentClass = clazz;
-        while (currentClass != null && currentClass != Object.class) {
-            for (Field field : currentClass.getDeclaredFields()) {
-                if (field.isAnnotationPresent(TimeToLive.class)) {
-                    hasTtl = true;
-                }
-                if (field.isAnnotationPresent(Indexed.class)) {
-                    hasIndexed = true;
-                }
-
-                // If we found both, we can stop searching
-                if (hasTtl && hasIndexed) {
-                    return true;
-                }
-            }
-            currentClass = currentClass.getSuperclass();
-        }
-
-        return hasTtl && hasIndexed;
+    public EntityMetadata getEntityNeedingCleanup(String hashName) {
+        return snapshot().entitiesNeedingCleanupByHashName().get(hashName);
     }
 
     /**
-     * Clear the entity metadata cache (useful for testing or re-discovery)
+     * Clear the entity metadata snapshot (useful for testing or re-discovery), the
+     * next read discovers the entities again
      */
     public void clearCache() {
-        entityMetadataCache.clear();
+        snapshot = null;
         log.debug("Entity metadata cache cleared");
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.securevault.main.service.expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.KeyExpirationEventMessageListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Event-driven counterpart of the {@link RedisCleanupService} sweep. Listens to
+ * expired key events and removes the id of an expired entity from its main set
+ * and index sets as soon as its hash expires, so index sets stay close to their
+ * live size between sweeps.
+ * 
+ * Keyspace notifications for expired events ("Ex") are enabled on startup when
+ * the server has none configured. Managed servers that reject CONFIG SET need
+ * notify-keyspace-events configured on the server itself.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.redis.cleanup", name = "expiration-events", havingValue = "true", matchIfMissing = true)
+public class RedisKeyExpirationListener extends KeyExpirationEventMessageListener {
+
+    private static final RedisScript<Long> EXPIRED_ENTITY_CLEANUP_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/redis/expired-entity-cleanup.lua"), Long.class);
+
+    private static final String IDX_SUFFIX = ":idx";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisEntityDiscoveryService redisEntityDiscoveryService;
+    private final String database;
+
+    public RedisKeyExpirationListener(RedisMessageListenerContainer listenerContainer,
+            StringRedisTemplate stringRedisTemplate, RedisEntityDiscoveryService redisEntityDiscoveryService,
+            @Value("${spring.data.redis.database:0}") String database) {
+        super(listenerContainer);
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisEntityDiscoveryService = redisEntityDiscoveryService;
+        this.database = database;
+        setKeyspaceNotificationsConfigParameter("Ex");
+    }
+
+    /**
+     * Subscribe to the expired events of the configured database only
+     */
+    @Override
+    protected void doRegister(RedisMessageListenerContainer listenerContainer) {
+        listenerContainer.addMessageListener(this, new ChannelTopic("__keyevent@" + database + "__:expired"));
+    }
+
+    @Override
+    protected void doHandleMessage(Message message) {
+        String expiredKey = new String(message.getBody(), StandardCharsets.UTF_8);
+
+        try {
+            RedisEntityDiscoveryService.EntityMetadata metadata = findEntityMetadata(expiredKey);
+            if (metadata == null) {
+                return;
+            }
+
+            String hashName = metadata.getHashName();
+            String id = expiredKey.substring(hashName.length() + 1);
+
+            Long removed = stringRedisTemplate.execute(EXPIRED_ENTITY_CLEANUP_SCRIPT,
+                    List.of(expiredKey, hashName, expiredKey + IDX_SUFFIX), id);
+
+            log.debug("Removed {} index entries of expired entity: {}", removed, expiredKey);
+        } catch (Exception e) {
+            // The periodic sweep picks up whatever is left behind
+            log.warn("Error cleaning up indexes of expired key: {}", expiredKey, e);
+        }
+    }
+
+    /**
+     * Find the metadata of the entity whose hash is the given key. Keys of other
+     * keyspaces and helper keys such as hashName:id:idx are ignored.
+     * 
+     * @param key Expired key
+     * @return Entity metadata, or null when the key is not an entity hash
+     */
+    private RedisEntityDiscoveryService.EntityMetadata findEntityMetadata(String key) {
+        // Entity hash keys are hashName:id, ids do not contain a colon
+        int separator = key.lastIndexOf(':');
+        if (separator <= 0 || separator == key.length() - 1) {
+            return null;
+        }
+
+        return redisEntityDiscoveryService.getEntityNeedingCleanup(key.substring(0, separator));
+    }
+}
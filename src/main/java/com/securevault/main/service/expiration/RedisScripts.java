@@ -0,0 +1,59 @@
+package com.securevault.main.service.expiration;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Helpers to run cached scripts directly on a connection, used by the cleanup
+ * engine to keep all commands of a run on a single connection
+ */
+final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    /**
+     * Execute a cached script with EVALSHA, loading it with EVAL when the server
+     * does not know it yet
+     * 
+     * @param connection  Connection to run the script on
+     * @param script      Script to run
+     * @param returnType  Reply type of the script
+     * @param numKeys     Number of keys in keysAndArgs
+     * @param keysAndArgs Keys followed by arguments
+     * @return Script reply
+     */
+    static <T> T eval(RedisConnection connection, RedisScript<?> script, ReturnType returnType, int numKeys,
+            byte[]... keysAndArgs) {
+        try {
+            return connection.scriptingCommands().evalSha(script.getSha1(), returnType, numKeys, keysAndArgs);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+
+            return connection.scriptingCommands().eval(bytes(script.getScriptAsString()), returnType, numKeys,
+                    keysAndArgs);
+        }
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isNoScriptError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.securevault.main.service.ratelimit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration properties for login throttling
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.auth.rate-limit")
+public class LoginRateLimitProperties {
+
+	/**
+	 * Whether login attempts are throttled
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Attempts allowed from one client IP address, whatever the email
+	 */
+	private Window ip = new Window(20, Duration.ofMinutes(1));
+
+	/**
+	 * Attempts allowed for one email, whatever the client IP address
+	 */
+	private Window email = new Window(10, Duration.ofMinutes(15));
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Window {
+
+		/**
+		 * Maximum number of attempts within the window
+		 */
+		private int limit;
+
+		/**
+		 * Length of the sliding window
+		 */
+		private Duration window;
+	}
+}
@@ -0,0 +1,95 @@
+package com.securevault.main.service.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.securevault.main.exception.TooManyRequestsException;
+import com.securevault.main.service.MessageSourceService;
+import com.securevault.main.util.TokenDigestUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throttles login attempts per client IP address and per email with sliding
+ * windows kept in Redis, checked and recorded by a single script call. It runs
+ * before the user is read and the password hash is verified, so over-limit
+ * attempts cost one Redis round trip instead of a Mongo read and a PBKDF2
+ * computation.
+ *
+ * Emails are part of keys as digests only. When Redis is unavailable attempts
+ * are let through, the account lockout still applies.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimiter {
+	static final String KEYSPACE = "login_attempts";
+	static final String THROTTLED = "auth.login.throttled";
+
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> RATE_LIMIT_SCRIPT = RedisScript.of(
+			new ClassPathResource("scripts/redis/login-rate-limit.lua"), List.class);
+
+	private static final List<String> SCOPES = List.of("ip", "email");
+
+	private final LoginRateLimitProperties properties;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final MessageSourceService messageSourceService;
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Record a login attempt, or reject it when a window is full
+	 *
+	 * @param ipAddress String client IP address
+	 * @param email     String email of the attempt
+	 * @throws TooManyRequestsException when the attempt is over a limit
+	 */
+	public void check(final String ipAddress, final String email) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+
+		List<String> keys = List.of(
+				KEYSPACE + ":ip:" + ipAddress,
+				KEYSPACE + ":email:" + TokenDigestUtils.digest(String.valueOf(email).toLowerCase(Locale.ROOT)));
+
+		List<?> reply;
+		try {
+			reply = stringRedisTemplate.execute(RATE_LIMIT_SCRIPT, keys,
+					String.valueOf(System.currentTimeMillis()),
+					UUID.randomUUID().toString(),
+					String.valueOf(properties.getIp().getWindow().toMillis()),
+					String.valueOf(properties.getIp().getLimit()),
+					String.valueOf(properties.getEmail().getWindow().toMillis()),
+					String.valueOf(properties.getEmail().getLimit()));
+		} catch (Exception e) {
+			log.warn("Could not check login rate limit, letting the attempt through: {}", e.getMessage());
+			return;
+		}
+
+		if (reply == null || reply.size() < 2) {
+			return;
+		}
+
+		long retryAfterMs = ((Number) reply.get(0)).longValue();
+		if (retryAfterMs <= 0) {
+			return;
+		}
+
+		String scope = SCOPES.get(((Number) reply.get(1)).intValue() - 1);
+		meterRegistry.counter(THROTTLED, "scope", scope).increment();
+		log.warn("Login attempt throttled by {} window for email: {}", scope, email);
+
+		throw new TooManyRequestsException(messageSourceService.get("too_many_login_attempts"),
+				Duration.ofMillis(retryAfterMs));
+	}
+}
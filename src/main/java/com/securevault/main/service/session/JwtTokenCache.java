@@ -0,0 +1,176 @@
+package com.securevault.main.service.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.securevault.main.entity.JwtToken;
+import com.securevault.main.util.TokenDigestUtils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded near-cache of validated sessions, keyed by token digest. Every entry
+ * expires no later than the exp claim of the token it was loaded for, and
+ * entries are invalidated on all nodes through Redis pub/sub whenever a session
+ * is changed or deleted.
+ */
+@Slf4j
+@Component
+public class JwtTokenCache implements MessageListener {
+	private static final String TOKEN_MESSAGE_PREFIX = "token:";
+	private static final String USER_MESSAGE_PREFIX = "user:";
+
+	private final JwtTokenCacheProperties properties;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisMessageListenerContainer redisMessageListenerContainer;
+	private final Cache<String, CachedSession> cache;
+
+	public JwtTokenCache(final JwtTokenCacheProperties properties,
+			final StringRedisTemplate stringRedisTemplate,
+			final RedisMessageListenerContainer redisMessageListenerContainer) {
+		this.properties = properties;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.redisMessageListenerContainer = redisMessageListenerContainer;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfter(new CachedSessionExpiry())
+				.build();
+	}
+
+	@PostConstruct
+	public void subscribe() {
+		if (properties.isEnabled()) {
+			redisMessageListenerContainer.addMessageListener(this,
+					new ChannelTopic(properties.getInvalidationChannel()));
+		}
+	}
+
+	/**
+	 * Get cached session for the given token digest
+	 *
+	 * @param digest String token digest
+	 * @return Optional session
+	 */
+	public Optional<JwtToken> get(final String digest) {
+		if (!properties.isEnabled()) {
+			return Optional.empty();
+		}
+
+		return Optional.ofNullable(cache.getIfPresent(digest)).map(CachedSession::jwtToken);
+	}
+
+	/**
+	 * Cache a session loaded from Redis
+	 *
+	 * @param digest    String token digest
+	 * @param jwtToken  JwtToken session record
+	 * @param expiresAt Date exp claim of the token
+	 */
+	public void put(final String digest, final JwtToken jwtToken, final Date expiresAt) {
+		if (!properties.isEnabled() || expiresAt == null) {
+			return;
+		}
+
+		long maximumExpiresAt = System.currentTimeMillis() + properties.getMaximumTtl().toMillis();
+		long entryExpiresAt = Math.min(expiresAt.getTime(), maximumExpiresAt);
+		if (entryExpiresAt <= System.currentTimeMillis()) {
+			return;
+		}
+
+		cache.put(digest, new CachedSession(jwtToken, entryExpiresAt));
+	}
+
+	/**
+	 * Invalidate both tokens of a session on every node
+	 *
+	 * @param jwtToken JwtToken session record
+	 */
+	public void invalidate(final JwtToken jwtToken) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+
+		for (String token : new String[] { jwtToken.getToken(), jwtToken.getRefreshToken() }) {
+			if (token != null) {
+				String digest = TokenDigestUtils.digest(token);
+				cache.invalidate(digest);
+				publish(TOKEN_MESSAGE_PREFIX + digest);
+			}
+		}
+	}
+
+	/**
+	 * Invalidate every cached session of a user on every node
+	 *
+	 * @param userId UUID
+	 */
+	public void invalidateUser(final UUID userId) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+
+		invalidateUserLocally(userId.toString());
+		publish(USER_MESSAGE_PREFIX + userId);
+	}
+
+	@Override
+	public void onMessage(@NonNull final Message message, final byte[] pattern) {
+		String body = new String(message.getBody(), StandardCharsets.UTF_8);
+
+		if (body.startsWith(TOKEN_MESSAGE_PREFIX)) {
+			cache.invalidate(body.substring(TOKEN_MESSAGE_PREFIX.length()));
+		} else if (body.startsWith(USER_MESSAGE_PREFIX)) {
+			invalidateUserLocally(body.substring(USER_MESSAGE_PREFIX.length()));
+		} else {
+			log.warn("[JWT] Unknown session cache invalidation message: {}", body);
+		}
+	}
+
+	private void invalidateUserLocally(final String userId) {
+		cache.asMap().values().removeIf(session -> session.jwtToken().getUserId() != null
+				&& userId.equals(session.jwtToken().getUserId().toString()));
+	}
+
+	private void publish(final String message) {
+		try {
+			stringRedisTemplate.convertAndSend(properties.getInvalidationChannel(), message);
+		} catch (Exception e) {
+			log.error("[JWT] Could not publish session cache invalidation: {}", e.getMessage());
+		}
+	}
+
+	private record CachedSession(JwtToken jwtToken, long expiresAt) {
+	}
+
+	private static final class CachedSessionExpiry implements Expiry<String, CachedSession> {
+		@Override
+		public long expireAfterCreate(String key, CachedSession value, long currentTime) {
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt() - System.currentTimeMillis()));
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, CachedSession value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String key, CachedSession value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
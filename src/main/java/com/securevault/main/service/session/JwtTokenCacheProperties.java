@@ -0,0 +1,39 @@
+package com.securevault.main.service.session;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the in-process cache of validated sessions
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jwt.session-cache")
+public class JwtTokenCacheProperties {
+
+	/**
+	 * Whether validated sessions are cached in front of Redis
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Maximum number of cached sessions, least recently used ones are evicted
+	 * first
+	 */
+	private long maximumSize = 10_000;
+
+	/**
+	 * Upper bound for the lifetime of a cached session. Entries never outlive
+	 * the exp claim of their token, whichever comes first.
+	 */
+	private Duration maximumTtl = Duration.ofMinutes(5);
+
+	/**
+	 * Redis pub/sub channel used to invalidate cached sessions on every node
+	 */
+	private String invalidationChannel = "jwt_tokens:cache:invalidate";
+}
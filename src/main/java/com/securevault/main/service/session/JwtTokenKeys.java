@@ -0,0 +1,78 @@
+package com.securevault.main.service.session;
+
+import java.util.UUID;
+
+import com.securevault.main.util.TokenDigestUtils;
+
+/**
+ * Redis key layout of sessions that live outside of the Spring Data Redis
+ * managed jwt_tokens hashes.
+ */
+public final class JwtTokenKeys {
+	public static final String KEYSPACE = "jwt_tokens";
+	public static final String DIGEST_KEYSPACE = "jwt_token_digests";
+	public static final String SESSIONS_KEYSPACE = "jwt_token_sessions";
+
+	/**
+	 * Digest key value of a refresh token that was already rotated
+	 */
+	public static final String ROTATED_MARKER = "rotated";
+
+	private JwtTokenKeys() {
+	}
+
+	/**
+	 * Key of the session hash managed by Spring Data Redis
+	 *
+	 * @param id String session id
+	 * @return String key
+	 */
+	public static String sessionKey(final String id) {
+		return KEYSPACE + ":" + id;
+	}
+
+	/**
+	 * Key of the helper set listing the index sets holding a session id
+	 *
+	 * @param id String session id
+	 * @return String key
+	 */
+	public static String sessionIndexesKey(final String id) {
+		return sessionKey(id) + ":idx";
+	}
+
+	/**
+	 * Key of the userId index set managed by Spring Data Redis
+	 *
+	 * @param userId UUID
+	 * @return String key
+	 */
+	public static String userIndexKey(final UUID userId) {
+		return KEYSPACE + ":userId:" + userId;
+	}
+
+	/**
+	 * Key of the registry of the sessions of a user, a sorted set of session ids
+	 * scored by their expiry in epoch milliseconds
+	 *
+	 * @param userId UUID
+	 * @return String key
+	 */
+	public static String userSessionsKey(final UUID userId) {
+		return SESSIONS_KEYSPACE + ":" + userId;
+	}
+
+	/**
+	 * Key holding the session id of an access or refresh token
+	 *
+	 * @param token String access or refresh token
+	 * @return String key
+	 */
+	public static String digestKey(final String token) {
+		return digestKeyOf(TokenDigestUtils.digest(token));
+	}
+
+	public static String digestKeyOf(final String digest) {
+		return DIGEST_KEYSPACE + ":" + digest;
+	}
+}
@@ -0,0 +1,214 @@
+package com.securevault.main.service.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.securevault.main.util.TokenDigestUtils;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory list of revoked access tokens for stateless validation. A single
+ * token is revoked by its digest, all tokens of a user by the time of the
+ * revocation, rejecting tokens issued in an earlier second. Entries are kept as
+ * long as an access token can live.
+ *
+ * The iat claim only has second precision, so a user revocation does not cover
+ * tokens issued in its own second, to not lock out a session created right
+ * after it. Callers revoke the tokens of the sessions they delete by digest as
+ * well.
+ *
+ * Revocations are published to every node through Redis pub/sub and kept in a
+ * Redis sorted set scored by expiry, which a starting node loads so it does
+ * not miss revocations made before it subscribed.
+ */
+@Slf4j
+@Component
+public class JwtTokenRevocationList implements MessageListener {
+	static final String REVOCATIONS_KEY = "jwt_token_revocations";
+
+	private static final String TOKEN_PREFIX = "token:";
+	private static final String USER_PREFIX = "user:";
+
+	private final JwtTokenRevocationProperties properties;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisMessageListenerContainer redisMessageListenerContainer;
+	private final long tokenExpiresIn;
+	private final Cache<String, Revocation> revocations;
+
+	public JwtTokenRevocationList(final JwtTokenRevocationProperties properties,
+			final StringRedisTemplate stringRedisTemplate,
+			final RedisMessageListenerContainer redisMessageListenerContainer,
+			@Value("${app.jwt.token.expires-in}") final Long tokenExpiresIn) {
+		this.properties = properties;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.redisMessageListenerContainer = redisMessageListenerContainer;
+		this.tokenExpiresIn = tokenExpiresIn;
+		this.revocations = Caffeine.newBuilder()
+				.expireAfter(new RevocationExpiry())
+				.build();
+	}
+
+	@PostConstruct
+	public void subscribe() {
+		if (!isEnabled()) {
+			return;
+		}
+
+		redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(properties.getChannel()));
+
+		try {
+			Set<ZSetOperations.TypedTuple<String>> entries = stringRedisTemplate.opsForZSet()
+					.rangeByScoreWithScores(REVOCATIONS_KEY, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+			if (entries != null) {
+				entries.forEach(entry -> record(entry.getValue(), entry.getScore().longValue()));
+			}
+			log.info("[JWT] Loaded {} access token revocations", revocations.estimatedSize());
+		} catch (Exception e) {
+			log.error("[JWT] Could not load access token revocations: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Whether access tokens are validated against this list instead of Redis
+	 *
+	 * @return boolean
+	 */
+	public boolean isEnabled() {
+		return properties.isStatelessAccessTokens();
+	}
+
+	/**
+	 * Whether an access token was revoked, on its own or with every token of its
+	 * user
+	 *
+	 * @param token  String access token
+	 * @param claims Claims verified claims of the token
+	 * @return boolean
+	 */
+	public boolean isRevoked(final String token, final Claims claims) {
+		if (revocations.estimatedSize() == 0) {
+			return false;
+		}
+
+		if (revocations.getIfPresent(TOKEN_PREFIX + TokenDigestUtils.digest(token)) != null) {
+			return true;
+		}
+
+		Date issuedAt = claims.getIssuedAt();
+		return Optional.ofNullable(revocations.getIfPresent(USER_PREFIX + claims.getSubject()))
+				.map(revocation -> issuedAt == null || issuedAt.getTime() / 1000 < revocation.revokedAt() / 1000)
+				.orElse(false);
+	}
+
+	/**
+	 * Revoke a single access token on every node
+	 *
+	 * @param token String access token
+	 */
+	public void revokeToken(final String token) {
+		if (!isEnabled() || token == null) {
+			return;
+		}
+
+		publish(TOKEN_PREFIX + TokenDigestUtils.digest(token), System.currentTimeMillis());
+	}
+
+	/**
+	 * Revoke every access token of a user issued so far on every node
+	 *
+	 * @param userId UUID
+	 */
+	public void revokeUser(final UUID userId) {
+		if (!isEnabled()) {
+			return;
+		}
+
+		publish(USER_PREFIX + userId + ":" + System.currentTimeMillis(), System.currentTimeMillis());
+	}
+
+	@Override
+	public void onMessage(@NonNull final Message message, final byte[] pattern) {
+		record(new String(message.getBody(), StandardCharsets.UTF_8), System.currentTimeMillis() + tokenExpiresIn);
+	}
+
+	private void publish(final String member, final long revokedAt) {
+		long expiresAt = revokedAt + tokenExpiresIn;
+		record(member, expiresAt);
+
+		try {
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				StringRedisConnection stringConnection = (StringRedisConnection) connection;
+				stringConnection.zAdd(REVOCATIONS_KEY, expiresAt, member);
+				stringConnection.zRemRangeByScore(REVOCATIONS_KEY, Double.NEGATIVE_INFINITY, revokedAt);
+				stringConnection.publish(properties.getChannel(), member);
+				return null;
+			});
+		} catch (Exception e) {
+			log.error("[JWT] Could not publish access token revocation: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Record a revocation, users being keyed by id and holding the time of their
+	 * latest revocation
+	 */
+	private void record(final String member, final long expiresAt) {
+		if (member == null) {
+			return;
+		}
+
+		if (member.startsWith(USER_PREFIX)) {
+			int separator = member.lastIndexOf(':');
+			String key = member.substring(0, separator);
+			long revokedAt = Long.parseLong(member.substring(separator + 1));
+			revocations.asMap().merge(key, new Revocation(revokedAt, expiresAt),
+					(current, next) -> next.revokedAt() > current.revokedAt() ? next : current);
+		} else if (member.startsWith(TOKEN_PREFIX)) {
+			revocations.put(member, new Revocation(expiresAt - tokenExpiresIn, expiresAt));
+		} else {
+			log.warn("[JWT] Unknown access token revocation: {}", member);
+		}
+	}
+
+	private record Revocation(long revokedAt, long expiresAt) {
+	}
+
+	private static final class RevocationExpiry implements Expiry<String, Revocation> {
+		@Override
+		public long expireAfterCreate(String key, Revocation value, long currentTime) {
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt() - System.currentTimeMillis()));
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, Revocation value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String key, Revocation value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.securevault.main.service.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for stateless access token validation
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jwt.revocation")
+public class JwtTokenRevocationProperties {
+
+	/**
+	 * Whether access tokens are trusted on their signature and exp claim alone,
+	 * checked against the in-memory revocation list instead of Redis. Refresh
+	 * tokens are always checked against Redis.
+	 */
+	private boolean statelessAccessTokens = false;
+
+	/**
+	 * Redis pub/sub channel used to distribute revocations to every node
+	 */
+	private String channel = "jwt_tokens:revocations";
+}
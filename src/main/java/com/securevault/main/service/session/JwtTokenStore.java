@@ -0,0 +1,400 @@
+package com.securevault.main.service.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.convert.SimpleIndexedPropertyValue;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.securevault.main.entity.JwtToken;
+import com.securevault.main.exception.TokenReuseException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Direct-key access to sessions. Every access and refresh token gets a
+ * fixed-length digest key pointing at its session id, so a session is resolved
+ * with one script call on computed keys instead of the secondary index sets of
+ * the full JWT strings.
+ *
+ * Sessions of a user are registered in a per-user sorted set, so revoking all
+ * of them takes a fixed number of pipelined round trips and they can be listed
+ * page by page in expiry order.
+ *
+ * Refresh rotation runs as a single script that checks, marks, removes and
+ * inserts, so concurrent refreshes with the same token cannot both succeed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtTokenStore {
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> FIND_BY_DIGEST_SCRIPT = RedisScript.of(
+			new ClassPathResource("scripts/redis/jwt-token-find-by-digest.lua"), List.class);
+
+	private static final RedisScript<Long> SAVE_KEYS_SCRIPT = RedisScript.of(
+			new ClassPathResource("scripts/redis/jwt-token-save-keys.lua"), Long.class);
+
+	private static final RedisScript<String> ROTATE_SCRIPT = RedisScript.of(
+			new ClassPathResource("scripts/redis/jwt-token-rotate.lua"), String.class);
+
+	private static final String TOKEN_FIELD = "token";
+	private static final String REFRESH_TOKEN_FIELD = "refreshToken";
+	private static final String IP_ADDRESS_FIELD = "ipAddress";
+	private static final String USER_AGENT_FIELD = "userAgent";
+	private static final String REMEMBER_ME_FIELD = "rememberMe";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisConverter redisConverter;
+
+	/**
+	 * Find session by the digest of its access or refresh token
+	 *
+	 * @param digest String token digest
+	 * @return Optional session
+	 * @throws TokenReuseException when the digest is the one of a refresh token
+	 *                             that was already rotated
+	 */
+	public Optional<JwtToken> findByDigest(final String digest) {
+		List<?> reply = stringRedisTemplate.execute(FIND_BY_DIGEST_SCRIPT,
+				List.of(JwtTokenKeys.digestKeyOf(digest)), JwtTokenKeys.KEYSPACE, JwtTokenKeys.ROTATED_MARKER);
+
+		if (reply == null || reply.isEmpty()) {
+			return Optional.empty();
+		}
+
+		if (reply.size() == 1 && JwtTokenKeys.ROTATED_MARKER.equals(String.valueOf(reply.get(0)))) {
+			throw new TokenReuseException("Refresh token was already rotated");
+		}
+
+		Map<byte[], byte[]> hash = new HashMap<>();
+		for (int i = 0; i + 1 < reply.size(); i += 2) {
+			hash.put(String.valueOf(reply.get(i)).getBytes(StandardCharsets.UTF_8),
+					String.valueOf(reply.get(i + 1)).getBytes(StandardCharsets.UTF_8));
+		}
+
+		return Optional.ofNullable(redisConverter.read(JwtToken.class, new RedisData(Bucket.newBucketFromRawMap(hash))));
+	}
+
+	/**
+	 * Point both token digests of a session at its id for the given lifetime and
+	 * register the session in the session registry of its user
+	 *
+	 * @param jwtToken     JwtToken session
+	 * @param timeToLiveMs Long lifetime in milliseconds
+	 */
+	public void saveSessionKeys(final JwtToken jwtToken, final Long timeToLiveMs) {
+		if (timeToLiveMs == null || timeToLiveMs <= 0) {
+			return;
+		}
+
+		List<String> keys = new ArrayList<>();
+		keys.add(JwtTokenKeys.userSessionsKey(jwtToken.getUserId()));
+		tokensOf(jwtToken).forEach(token -> keys.add(JwtTokenKeys.digestKey(token)));
+
+		stringRedisTemplate.execute(SAVE_KEYS_SCRIPT, keys, jwtToken.getId().toString(),
+				String.valueOf(timeToLiveMs), String.valueOf(System.currentTimeMillis()));
+	}
+
+	/**
+	 * Remove digest keys of a session and unregister it from its user
+	 *
+	 * @param jwtToken JwtToken session
+	 */
+	public void deleteSessionKeys(final JwtToken jwtToken) {
+		List<String> keys = tokensOf(jwtToken).stream().map(JwtTokenKeys::digestKey).toList();
+
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection stringConnection = (StringRedisConnection) connection;
+			if (!keys.isEmpty()) {
+				stringConnection.unlink(keys.toArray(String[]::new));
+			}
+			if (jwtToken.getUserId() != null) {
+				stringConnection.zRem(JwtTokenKeys.userSessionsKey(jwtToken.getUserId()),
+						jwtToken.getId().toString());
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Delete every session of a user in three pipelined round trips whatever the
+	 * number of sessions: read the session ids from the registry and the userId
+	 * index, read the tokens and index sets of the sessions, then remove the ids
+	 * from their sets and unlink sessions, digest keys and registry at once.
+	 *
+	 * @param userId UUID
+	 * @return Access tokens of the deleted sessions
+	 */
+	public List<String> deleteAllByUserId(final UUID userId) {
+		return deleteAllByUserId(userId, null);
+	}
+
+	/**
+	 * Delete every session of a user but the given one, see
+	 * {@link #deleteAllByUserId(UUID)}
+	 *
+	 * @param userId        UUID
+	 * @param keepSessionId UUID session to keep, or null
+	 * @return Access tokens of the deleted sessions
+	 */
+	public List<String> deleteAllByUserId(final UUID userId, final UUID keepSessionId) {
+		String registryKey = JwtTokenKeys.userSessionsKey(userId);
+
+		// Sessions saved before the registry existed are still found through the index
+		Set<String> ids = new LinkedHashSet<>();
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection stringConnection = (StringRedisConnection) connection;
+			stringConnection.zRange(registryKey, 0, -1);
+			stringConnection.sMembers(JwtTokenKeys.userIndexKey(userId));
+			return null;
+		}).forEach(reply -> {
+			if (reply instanceof Collection<?> members) {
+				members.forEach(member -> ids.add(String.valueOf(member)));
+			}
+		});
+
+		if (keepSessionId != null) {
+			ids.remove(keepSessionId.toString());
+		}
+
+		if (ids.isEmpty()) {
+			if (keepSessionId == null) {
+				stringRedisTemplate.unlink(registryKey);
+			}
+			return List.of();
+		}
+
+		List<String> sessionIds = List.copyOf(ids);
+		List<Object> sessions = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection stringConnection = (StringRedisConnection) connection;
+			for (String id : sessionIds) {
+				stringConnection.hMGet(JwtTokenKeys.sessionKey(id), TOKEN_FIELD, REFRESH_TOKEN_FIELD);
+				stringConnection.sMembers(JwtTokenKeys.sessionIndexesKey(id));
+			}
+			return null;
+		});
+
+		List<String> unlinkKeys = new ArrayList<>();
+		List<String> accessTokens = new ArrayList<>();
+		Map<String, List<String>> indexMembers = new HashMap<>();
+		if (keepSessionId == null) {
+			unlinkKeys.add(registryKey);
+		}
+
+		for (int i = 0; i < sessionIds.size(); i++) {
+			String id = sessionIds.get(i);
+			unlinkKeys.add(JwtTokenKeys.sessionKey(id));
+			unlinkKeys.add(JwtTokenKeys.sessionIndexesKey(id));
+
+			if (sessions.get(2 * i) instanceof List<?> tokens) {
+				tokens.stream().filter(Objects::nonNull)
+						.forEach(token -> unlinkKeys.add(JwtTokenKeys.digestKey(String.valueOf(token))));
+				if (!tokens.isEmpty() && tokens.get(0) != null) {
+					accessTokens.add(String.valueOf(tokens.get(0)));
+				}
+			}
+			if (sessions.get(2 * i + 1) instanceof Collection<?> indexKeys) {
+				indexKeys.forEach(indexKey -> indexMembers
+						.computeIfAbsent(String.valueOf(indexKey), key -> new ArrayList<>()).add(id));
+			}
+		}
+
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection stringConnection = (StringRedisConnection) connection;
+			stringConnection.sRem(JwtTokenKeys.KEYSPACE, sessionIds.toArray(String[]::new));
+			if (keepSessionId != null) {
+				stringConnection.zRem(registryKey, sessionIds.toArray(String[]::new));
+			}
+			indexMembers.forEach((indexKey, members) -> stringConnection.sRem(indexKey,
+					members.toArray(String[]::new)));
+			stringConnection.unlink(unlinkKeys.toArray(String[]::new));
+			return null;
+		});
+
+		return accessTokens;
+	}
+
+	/**
+	 * Read a page of the sessions of a user from the registry, the sessions
+	 * expiring last coming first. Expired ids are trimmed first, then the page is
+	 * read by rank and the sessions are read in one pipelined round trip. Ids
+	 * whose session no longer exists are unregistered.
+	 *
+	 * @param userId UUID
+	 * @param page   int zero based page
+	 * @param size   int page size
+	 * @return SessionPage
+	 */
+	public SessionPage findSessions(final UUID userId, final int page, final int size) {
+		String registryKey = JwtTokenKeys.userSessionsKey(userId);
+		long start = (long) page * size;
+
+		List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection stringConnection = (StringRedisConnection) connection;
+			stringConnection.zRemRangeByScore(registryKey, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+			stringConnection.zCard(registryKey);
+			stringConnection.zRevRangeWithScores(registryKey, start, start + size - 1);
+			return null;
+		});
+
+		long total = replies.get(1) instanceof Number count ? count.longValue() : 0;
+		Map<String, Long> expiries = new LinkedHashMap<>();
+		if (replies.get(2) instanceof Collection<?> tuples) {
+			for (Object tuple : tuples) {
+				if (tuple instanceof ZSetOperations.TypedTuple<?> typedTuple && typedTuple.getScore() != null) {
+					expiries.put(String.valueOf(typedTuple.getValue()), typedTuple.getScore().longValue());
+				}
+			}
+		}
+
+		if (expiries.isEmpty()) {
+			return new SessionPage(total, List.of());
+		}
+
+		List<String> ids = List.copyOf(expiries.keySet());
+		List<Object> sessions = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			StringRedisConnection stringConnection = (StringRedisConnection) connection;
+			for (String id : ids) {
+				stringConnection.hMGet(JwtTokenKeys.sessionKey(id), IP_ADDRESS_FIELD, USER_AGENT_FIELD,
+						REMEMBER_ME_FIELD);
+			}
+			return null;
+		});
+
+		List<SessionInfo> found = new ArrayList<>();
+		List<String> stale = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			List<?> fields = sessions.get(i) instanceof List<?> values ? values : List.of();
+			if (fields.stream().allMatch(Objects::isNull)) {
+				stale.add(ids.get(i));
+				continue;
+			}
+
+			found.add(new SessionInfo(UUID.fromString(ids.get(i)), expiries.get(ids.get(i)),
+					(String) fields.get(0), (String) fields.get(1), Boolean.valueOf((String) fields.get(2))));
+		}
+
+		if (!stale.isEmpty()) {
+			stringRedisTemplate.opsForZSet().remove(registryKey, stale.toArray());
+		}
+
+		return new SessionPage(total - stale.size(), found);
+	}
+
+	/**
+	 * Atomically replace a session by a new one on refresh. The refresh token of
+	 * the old session must still point at it and be unused, it is then marked as
+	 * rotated so a replay is reported as reuse until it would have expired. The
+	 * refresh token of the session is marked whichever token led to it, so the
+	 * marker cannot be written under another digest key and lost.
+	 *
+	 * @param oldToken JwtToken session being refreshed
+	 * @param newToken JwtToken new session, with its id assigned
+	 * @return RotationStatus
+	 */
+	public RotationStatus rotate(final JwtToken oldToken, final JwtToken newToken) {
+		RedisData redisData = new RedisData();
+		redisConverter.write(newToken, redisData);
+
+		List<String> indexKeys = redisData.getIndexedData().stream()
+				.filter(SimpleIndexedPropertyValue.class::isInstance)
+				.map(SimpleIndexedPropertyValue.class::cast)
+				.map(index -> index.getKeyspace() + ":" + index.getIndexName() + ":" + string(
+						redisConverter.getConversionService().convert(index.getValue(), byte[].class)))
+				.toList();
+
+		List<String> args = new ArrayList<>();
+		args.add(JwtTokenKeys.KEYSPACE);
+		args.add(oldToken.getId().toString());
+		args.add(newToken.getId().toString());
+		args.add(String.valueOf(newToken.getTokenTimeToLive() != null ? newToken.getTokenTimeToLive() : 0));
+		args.add(JwtTokenKeys.ROTATED_MARKER);
+		args.add(String.valueOf(System.currentTimeMillis()));
+		args.add(String.valueOf(indexKeys.size()));
+		args.addAll(indexKeys);
+		redisData.getBucket().rawMap().forEach((field, value) -> {
+			args.add(string(field));
+			args.add(string(value));
+		});
+
+		List<String> keys = List.of(
+				JwtTokenKeys.digestKey(oldToken.getRefreshToken()),
+				JwtTokenKeys.digestKey(oldToken.getToken()),
+				JwtTokenKeys.digestKey(newToken.getToken()),
+				JwtTokenKeys.digestKey(newToken.getRefreshToken()),
+				JwtTokenKeys.userSessionsKey(newToken.getUserId()));
+
+		String reply = stringRedisTemplate.execute(ROTATE_SCRIPT, keys, args.toArray());
+
+		return RotationStatus.of(reply);
+	}
+
+	private static String string(final byte[] value) {
+		return value == null ? "" : new String(value, StandardCharsets.UTF_8);
+	}
+
+	private List<String> tokensOf(final JwtToken jwtToken) {
+		return Stream.of(jwtToken.getToken(), jwtToken.getRefreshToken())
+				.filter(Objects::nonNull)
+				.toList();
+	}
+
+	/**
+	 * Session of a user as listed from the registry
+	 *
+	 * @param id         UUID session id
+	 * @param expiresAt  long expiry in epoch milliseconds
+	 * @param ipAddress  String
+	 * @param userAgent  String
+	 * @param rememberMe Boolean
+	 */
+	public record SessionInfo(UUID id, long expiresAt, String ipAddress, String userAgent, Boolean rememberMe) {
+	}
+
+	/**
+	 * Page of the sessions of a user
+	 *
+	 * @param total    long number of registered sessions
+	 * @param sessions List of sessions of the page
+	 */
+	public record SessionPage(long total, List<SessionInfo> sessions) {
+	}
+
+	/**
+	 * Outcome of a refresh rotation
+	 */
+	public enum RotationStatus {
+		ROTATED, REUSED, NOT_FOUND;
+
+		static RotationStatus of(final String reply) {
+			if ("rotated".equals(reply)) {
+				return ROTATED;
+			}
+
+			return "reuse".equals(reply) ? REUSED : NOT_FOUND;
+		}
+	}
+}
@@ -11,6 +11,13 @@ public final class ApiEndpoints {
 
 	public static final String USER_BASE_URL = "/user";
 	public static final String USER_GET_AUTHENTICATED_USER_URL = "/me";
+	public static final String USER_SESSIONS_URL = "/me/sessions";
+	public static final String USER_SESSION_URL = "/me/sessions/{id}";
+	public static final String USER_SESSIONS_BY_USER_URL = "/{userId}/sessions";
+	public static final String USER_SESSION_BY_USER_URL = "/{userId}/sessions/{id}";
+
+	public static final String ADMIN_BASE_URL = "/admin";
+	public static final String ADMIN_REDIS_DIAGNOSTICS_URL = "/redis/diagnostics";
 
 	public static final String HEALTH_BASE_URL = "/health";
 	public static final String HEALTH_CHECK_URL = "/check";
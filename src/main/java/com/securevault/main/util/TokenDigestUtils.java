@@ -0,0 +1,29 @@
+package com.securevault.main.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class TokenDigestUtils {
+	private static final String ALGORITHM = "SHA-256";
+
+	private TokenDigestUtils() {
+	}
+
+	/**
+	 * Fixed-length digest of a token, used wherever a token has to be part of a
+	 * key instead of the full JWT string.
+	 *
+	 * @param token String token
+	 * @return 64 characters lowercase hex SHA-256 digest
+	 */
+	public static String digest(final String token) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance(ALGORITHM);
+			return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(ALGORITHM + " is not available", e);
+		}
+	}
+}
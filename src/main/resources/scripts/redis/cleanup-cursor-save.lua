@@ -0,0 +1,17 @@
+-- Persists a cleanup cursor, fenced by the lease of the shard: a node whose
+-- lease expired and was taken over can no longer move the cursors.
+--
+-- KEYS[1] lease key (redis_cleanup:lease:<shard>)
+-- KEYS[2] cursors of the shard (redis_cleanup:cursors:<shard>)
+-- ARGV[1] lease value (<owner>:<fencing token>)
+-- ARGV[2] cursor field (hashName:fieldName)
+-- ARGV[3] cursor
+--
+-- Returns 1 when the cursor was saved, 0 when the lease was lost.
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])
+
+return 1
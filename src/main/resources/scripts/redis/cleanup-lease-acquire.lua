@@ -0,0 +1,16 @@
+-- Acquires the cleanup lease of a shard.
+--
+-- KEYS[1] lease key (redis_cleanup:lease:<shard>)
+-- KEYS[2] fencing token counter (redis_cleanup:fencing)
+-- ARGV[1] owner id of the acquiring node
+-- ARGV[2] lease time to live in milliseconds
+--
+-- Returns the fencing token of the new lease, or 0 when the lease is held.
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+
+local token = redis.call('INCR', KEYS[2])
+redis.call('SET', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2])
+
+return token
@@ -0,0 +1,11 @@
+-- Releases the cleanup lease of a shard if it is still held by the caller.
+--
+-- KEYS[1] lease key (redis_cleanup:lease:<shard>)
+-- ARGV[1] lease value (<owner>:<fencing token>)
+--
+-- Returns 1 when the lease was released, 0 when it was already lost.
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+return redis.call('DEL', KEYS[1])
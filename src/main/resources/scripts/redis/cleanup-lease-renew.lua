@@ -0,0 +1,12 @@
+-- Extends the cleanup lease of a shard if it is still held by the caller.
+--
+-- KEYS[1] lease key (redis_cleanup:lease:<shard>)
+-- ARGV[1] lease value (<owner>:<fencing token>)
+-- ARGV[2] lease time to live in milliseconds
+--
+-- Returns 1 when the lease was extended, 0 when it was lost.
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+return redis.call('PEXPIRE', KEYS[1], ARGV[2])
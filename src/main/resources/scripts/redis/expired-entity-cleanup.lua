@@ -0,0 +1,22 @@
+-- Removes the id of an expired entity from its main set and index sets.
+--
+-- KEYS[1] entity hash (jwt_tokens:<id>)
+-- KEYS[2] main set of the keyspace (jwt_tokens)
+-- KEYS[3] helper set listing the index sets holding the id (jwt_tokens:<id>:idx)
+-- ARGV[1] entity id
+--
+-- Returns the number of removed set members. Nothing is removed when the hash
+-- exists again, e.g. when the entity was saved again with the same id.
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+
+local removed = redis.call('SREM', KEYS[2], ARGV[1])
+local indexKeys = redis.call('SMEMBERS', KEYS[3])
+for _, indexKey in ipairs(indexKeys) do
+    removed = removed + redis.call('SREM', indexKey, ARGV[1])
+end
+
+redis.call('UNLINK', KEYS[3])
+
+return removed
@@ -0,0 +1,18 @@
+-- Resolves a session through its token digest key in a single round trip.
+--
+-- KEYS[1] digest key (jwt_token_digests:<sha256>)
+-- ARGV[1] session keyspace (jwt_tokens)
+-- ARGV[2] marker stored in place of the session id of a rotated refresh token
+--
+-- Returns the HGETALL reply of the session hash, a single element reply
+-- holding the marker when the token is a rotated refresh token, or an empty
+-- reply when either the digest key or the session hash does not exist.
+local id = redis.call('GET', KEYS[1])
+if not id then
+    return {}
+end
+if id == ARGV[2] then
+    return {id}
+end
+
+return redis.call('HGETALL', ARGV[1] .. ':' .. id)
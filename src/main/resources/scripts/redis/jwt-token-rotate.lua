@@ -0,0 +1,91 @@
+-- Rotates a session on refresh in a single atomic round trip: checks that the
+-- refresh token is unused, marks it as rotated, removes the old session with
+-- its index entries and stores the new session with its index entries, moving
+-- the session in the session registry of the user.
+--
+-- KEYS[1] digest key of the refresh token of the old session
+-- KEYS[2] digest key of the old access token
+-- KEYS[3] digest key of the new access token
+-- KEYS[4] digest key of the new refresh token
+-- KEYS[5] session registry of the user (jwt_token_sessions:<userId>)
+-- ARGV[1] session keyspace (jwt_tokens)
+-- ARGV[2] old session id
+-- ARGV[3] new session id
+-- ARGV[4] new session time to live in milliseconds
+-- ARGV[5] rotated marker stored in place of the old refresh token digest
+-- ARGV[6] current time in epoch milliseconds
+-- ARGV[7] number of index keys of the new session
+-- ARGV[8 .. 7 + ARGV[7]] index keys of the new session
+-- ARGV[8 + ARGV[7] ..] field/value pairs of the new session hash
+--
+-- Returns 'rotated', 'reuse' when the refresh token was already rotated or
+-- used, or 'not_found' when its session no longer exists.
+local keyspace = ARGV[1]
+local oldId = ARGV[2]
+local newId = ARGV[3]
+local ttl = tonumber(ARGV[4])
+local marker = ARGV[5]
+local now = tonumber(ARGV[6])
+
+local current = redis.call('GET', KEYS[1])
+if current == marker then
+    return 'reuse'
+end
+if current ~= oldId then
+    return 'not_found'
+end
+
+local oldKey = keyspace .. ':' .. oldId
+if redis.call('EXISTS', oldKey) == 0 then
+    return 'not_found'
+end
+if redis.call('HEXISTS', oldKey, 'refreshTokenUsedAt') == 1 then
+    return 'reuse'
+end
+
+-- Mark the refresh token as rotated for as long as it would have been valid
+local remaining = redis.call('PTTL', KEYS[1])
+if remaining > 0 then
+    redis.call('SET', KEYS[1], marker, 'PX', remaining)
+else
+    redis.call('SET', KEYS[1], marker)
+end
+
+-- Remove the old session and its index entries
+local oldIdx = oldKey .. ':idx'
+for _, indexKey in ipairs(redis.call('SMEMBERS', oldIdx)) do
+    redis.call('SREM', indexKey, oldId)
+end
+redis.call('UNLINK', oldKey, oldIdx, KEYS[2])
+redis.call('SREM', keyspace, oldId)
+redis.call('ZREM', KEYS[5], oldId)
+
+-- Store the new session and its index entries
+local newKey = keyspace .. ':' .. newId
+local indexCount = tonumber(ARGV[7])
+local fields = {}
+for i = 8 + indexCount, #ARGV do
+    fields[#fields + 1] = ARGV[i]
+end
+redis.call('HSET', newKey, unpack(fields))
+redis.call('SADD', keyspace, newId)
+for i = 8, 7 + indexCount do
+    redis.call('SADD', ARGV[i], newId)
+    redis.call('SADD', newKey .. ':idx', ARGV[i])
+end
+
+if ttl > 0 then
+    redis.call('PEXPIRE', newKey, ttl)
+    redis.call('SET', KEYS[3], newId, 'PX', ttl)
+    redis.call('SET', KEYS[4], newId, 'PX', ttl)
+
+    redis.call('ZREMRANGEBYSCORE', KEYS[5], '-inf', now)
+    redis.call('ZADD', KEYS[5], now + ttl, newId)
+    local last = redis.call('ZRANGE', KEYS[5], -1, -1, 'WITHSCORES')
+    redis.call('PEXPIREAT', KEYS[5], last[2])
+else
+    redis.call('SET', KEYS[3], newId)
+    redis.call('SET', KEYS[4], newId)
+end
+
+return 'rotated'
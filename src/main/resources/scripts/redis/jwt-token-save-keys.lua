@@ -0,0 +1,25 @@
+-- Points the token digest keys of a session at its id and registers the session
+-- in the session registry of its user, in a single round trip.
+--
+-- KEYS[1] session registry of the user (jwt_token_sessions:<userId>)
+-- KEYS[2 ..] digest keys of the session tokens
+-- ARGV[1] session id
+-- ARGV[2] session time to live in milliseconds
+-- ARGV[3] current time in epoch milliseconds
+--
+-- The registry is a sorted set of session ids scored by their expiry. Expired
+-- ids are pruned on every write and the registry expires with the last session.
+local ttl = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+for i = 2, #KEYS do
+    redis.call('SET', KEYS[i], ARGV[1], 'PX', ttl)
+end
+
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+redis.call('ZADD', KEYS[1], now + ttl, ARGV[1])
+
+local last = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')
+redis.call('PEXPIREAT', KEYS[1], last[2])
+
+return 1
@@ -0,0 +1,43 @@
+-- Sliding window log of login attempts, one sorted set of attempt times per
+-- throttled key. The attempt is recorded in every window only when none of
+-- them is full, so rejected attempts do not extend a block.
+--
+-- KEYS[1 ..] window keys
+-- ARGV[1] current time in epoch milliseconds
+-- ARGV[2] unique member of this attempt
+-- ARGV[1 + 2i] window length in milliseconds of KEYS[i]
+-- ARGV[2 + 2i] maximum attempts within the window of KEYS[i]
+--
+-- Returns {0, 0} when the attempt is allowed, or {milliseconds until an
+-- attempt is allowed again, index of the key of the longest wait}.
+local now = tonumber(ARGV[1])
+local retryAfter = 0
+local rejected = 0
+
+for i = 1, #KEYS do
+    local window = tonumber(ARGV[1 + i * 2])
+    local limit = tonumber(ARGV[2 + i * 2])
+
+    redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', now - window)
+    local count = redis.call('ZCARD', KEYS[i])
+    if count >= limit then
+        -- Wait until enough attempts leave the window to get below the limit
+        local oldest = redis.call('ZRANGE', KEYS[i], count - limit, count - limit, 'WITHSCORES')
+        local wait = math.max(tonumber(oldest[2]) + window - now, 1)
+        if wait > retryAfter then
+            retryAfter = wait
+            rejected = i
+        end
+    end
+end
+
+if rejected > 0 then
+    return {retryAfter, rejected}
+end
+
+for i = 1, #KEYS do
+    redis.call('ZADD', KEYS[i], now, ARGV[2])
+    redis.call('PEXPIRE', KEYS[i], ARGV[1 + i * 2])
+end
+
+return {0, 0}
@@ -0,0 +1,34 @@
+-- Runs one SSCAN step over a main set or index set of entity ids and removes
+-- the ids whose entity hash no longer exists. Redis deletes the set once its
+-- last member is removed.
+--
+-- KEYS[1] set of entity ids (jwt_tokens or jwt_tokens:userId:<value>)
+-- ARGV[1] SSCAN cursor
+-- ARGV[2] SSCAN COUNT hint
+-- ARGV[3] hash name of the entity (jwt_tokens)
+-- ARGV[4] '1' when KEYS[1] is the main set, the :idx helper sets of removed
+--         ids are then unlinked as well
+-- ARGV[5] SSCAN MATCH pattern restricting the ids to the current shard
+--
+-- Returns { next cursor, checked members, removed members }.
+local reply = redis.call('SSCAN', KEYS[1], ARGV[1], 'MATCH', ARGV[5], 'COUNT', ARGV[2])
+local stale = {}
+
+for _, id in ipairs(reply[2]) do
+    if redis.call('EXISTS', ARGV[3] .. ':' .. id) == 0 then
+        stale[#stale + 1] = id
+    end
+end
+
+local removed = 0
+if #stale > 0 then
+    removed = redis.call('SREM', KEYS[1], unpack(stale))
+
+    if ARGV[4] == '1' then
+        for _, id in ipairs(stale) do
+            redis.call('UNLINK', ARGV[3] .. ':' .. id .. ':idx')
+        end
+    end
+end
+
+return { reply[1], #reply[2], removed }
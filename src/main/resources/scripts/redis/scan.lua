@@ -0,0 +1,9 @@
+-- Runs a single SCAN step from a caller supplied cursor, so that a keyspace
+-- walk can be resumed across cleanup runs.
+--
+-- ARGV[1] cursor
+-- ARGV[2] MATCH pattern
+-- ARGV[3] COUNT hint
+--
+-- Returns { next cursor, { keys... } }
+return redis.call('SCAN', ARGV[1], 'MATCH', ARGV[2], 'COUNT', ARGV[3])
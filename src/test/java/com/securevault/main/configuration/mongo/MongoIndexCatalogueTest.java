@@ -0,0 +1,69 @@
+package com.securevault.main.configuration.mongo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import com.securevault.main.configuration.mongo.MongoIndexCatalogue.IndexSpec;
+import com.securevault.main.entity.EmailVerificationToken;
+import com.securevault.main.entity.User;
+
+class MongoIndexCatalogueTest {
+
+    @Test
+    void testHasKeysOf() {
+        // Given
+        IndexSpec spec = new IndexSpec(User.class, List.of("email"), true);
+
+        // Then
+        assertTrue(spec.hasKeysOf(indexInfo(new Document("email", 1), false, null)));
+        assertFalse(spec.hasKeysOf(indexInfo(new Document("email", -1), false, null)));
+        assertFalse(spec.hasKeysOf(indexInfo(new Document("roleNames", 1), false, null)));
+        assertFalse(spec.hasKeysOf(indexInfo(new Document("email", 1).append("name", 1), false, null)));
+    }
+
+    @Test
+    void testHasOptionsOf() {
+        // Given
+        IndexSpec unique = new IndexSpec(User.class, List.of("email"), true);
+        IndexSpec ttl = new IndexSpec(EmailVerificationToken.class, List.of("expirationDate"), false, Duration.ZERO);
+
+        // Then
+        assertTrue(unique.hasOptionsOf(indexInfo(new Document("email", 1), true, null)));
+        assertFalse(unique.hasOptionsOf(indexInfo(new Document("email", 1), false, null)));
+        assertTrue(ttl.hasOptionsOf(indexInfo(new Document("expirationDate", 1), false, 0)));
+        assertFalse(ttl.hasOptionsOf(indexInfo(new Document("expirationDate", 1), false, 3600)));
+        assertFalse(ttl.hasOptionsOf(indexInfo(new Document("expirationDate", 1), false, null)));
+    }
+
+    @Test
+    void testToIndex() {
+        // Given
+        IndexSpec ttl = new IndexSpec(EmailVerificationToken.class, List.of("expirationDate"), false, Duration.ZERO);
+
+        // When
+        Document options = ttl.toIndex().getIndexOptions();
+
+        // Then
+        assertEquals(new Document("expirationDate", 1), ttl.toIndex().getIndexKeys());
+        assertEquals(0L, ((Number) options.get("expireAfterSeconds")).longValue());
+        assertFalse(options.containsKey("unique"));
+    }
+
+    private static IndexInfo indexInfo(Document keys, boolean unique, Integer expireAfterSeconds) {
+        Document index = new Document("key", keys)
+                .append("name", String.join("_", keys.keySet()) + "_1")
+                .append("unique", unique);
+        if (expireAfterSeconds != null) {
+            index.append("expireAfterSeconds", expireAfterSeconds);
+        }
+        return IndexInfo.indexInfoOf(index);
+    }
+}
@@ -0,0 +1,129 @@
+package com.securevault.main.initializer;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import com.securevault.main.configuration.mongo.MongoIndexProperties;
+import com.securevault.main.entity.EmailVerificationToken;
+import com.securevault.main.entity.User;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations userIndexOps;
+
+    @Mock
+    private IndexOperations tokenIndexOps;
+
+    private MongoIndexProperties properties;
+
+    private MongoIndexInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MongoIndexProperties();
+        initializer = new MongoIndexInitializer(mongoTemplate, properties);
+
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        when(mongoTemplate.getCollectionName(EmailVerificationToken.class)).thenReturn("email_verification_tokens");
+        when(mongoTemplate.indexOps("users")).thenReturn(userIndexOps);
+        when(mongoTemplate.indexOps("email_verification_tokens")).thenReturn(tokenIndexOps);
+    }
+
+    @Test
+    void testMatchingIndexes() {
+        // Given
+        givenIndexes(userIndexOps,
+                indexInfo(new Document("email", 1), true, null),
+                // Not declared, only reported
+                indexInfo(new Document("roleNames", 1), false, null));
+        givenIndexes(tokenIndexOps, tokenIndexes(0));
+        properties.setStrict(true);
+
+        // When / Then
+        assertDoesNotThrow(() -> initializer.run(null));
+        verify(userIndexOps).ensureIndex(any(IndexDefinition.class));
+        verify(tokenIndexOps, times(3)).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void testDriftFailsStartupInStrictMode() {
+        // Given a non-unique email index and a TTL index with another expiry
+        givenIndexes(userIndexOps, indexInfo(new Document("email", 1), false, null));
+        givenIndexes(tokenIndexOps, tokenIndexes(3600));
+        properties.setStrict(true);
+
+        // When
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> initializer.run(null));
+
+        // Then
+        assertTrue(e.getMessage().contains("users: index email_1 differs from email (unique)"));
+        assertTrue(e.getMessage().contains("email_verification_tokens: index expirationDate_1 differs"));
+    }
+
+    @Test
+    void testMissingIndexIsOnlyReportedOutsideStrictMode() {
+        // Given an index that could not be created
+        when(userIndexOps.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(new IllegalStateException("duplicate key"));
+        givenIndexes(userIndexOps);
+        givenIndexes(tokenIndexOps, tokenIndexes(0));
+
+        // When / Then
+        assertDoesNotThrow(() -> initializer.run(null));
+
+        // When strict
+        properties.setStrict(true);
+
+        // Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> initializer.run(null));
+        assertTrue(e.getMessage().contains("users: missing index email (unique)"));
+    }
+
+    private static void givenIndexes(IndexOperations indexOps, IndexInfo... indexes) {
+        List<IndexInfo> infos = new ArrayList<>();
+        infos.add(IndexInfo.indexInfoOf(new Document("key", new Document("_id", 1)).append("name", "_id_")));
+        infos.addAll(List.of(indexes));
+        when(indexOps.getIndexInfo()).thenReturn(infos);
+    }
+
+    private static IndexInfo[] tokenIndexes(int expireAfterSeconds) {
+        return new IndexInfo[] {
+                indexInfo(new Document("token", 1), true, null),
+                indexInfo(new Document("user.$id", 1), false, null),
+                indexInfo(new Document("expirationDate", 1), false, expireAfterSeconds) };
+    }
+
+    private static IndexInfo indexInfo(Document keys, boolean unique, Integer expireAfterSeconds) {
+        Document index = new Document("key", keys)
+                .append("name", String.join("_", keys.keySet()) + "_1")
+                .append("unique", unique);
+        if (expireAfterSeconds != null) {
+            index.append("expireAfterSeconds", expireAfterSeconds);
+        }
+        return IndexInfo.indexInfoOf(index);
+    }
+}
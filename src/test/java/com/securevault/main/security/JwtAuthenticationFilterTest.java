@@ -0,0 +1,142 @@
+package com.securevault.main.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.securevault.main.entity.User;
+import com.securevault.main.service.UserService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserService userService;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testPrincipalFromClaims() throws Exception {
+        // Given
+        String userId = UUID.randomUUID().toString();
+        givenValidToken(Jwts.claims()
+                .subject(userId)
+                .add(JwtTokenProvider.EMAIL_CLAIM, "user@example.com")
+                .add(JwtTokenProvider.ROLES_CLAIM, List.of("USER"))
+                .build());
+
+        // When
+        filter(false).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        JwtUserDetails principal = (JwtUserDetails) authentication().getPrincipal();
+        assertEquals(userId, principal.getId());
+        assertEquals("user@example.com", principal.getEmail());
+        verify(userService, never()).loadUserById(any());
+    }
+
+    @Test
+    void testFallbackToUserLookupWithoutPrincipalClaims() throws Exception {
+        // Given
+        String userId = UUID.randomUUID().toString();
+        givenValidToken(Jwts.claims().subject(userId).build());
+        JwtUserDetails loaded = loadedUser(userId);
+
+        // When
+        filter(false).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertSame(loaded, authentication().getPrincipal());
+    }
+
+    @Test
+    void testStrictModeLoadsUserDespitePrincipalClaims() throws Exception {
+        // Given
+        String userId = UUID.randomUUID().toString();
+        givenValidToken(Jwts.claims()
+                .subject(userId)
+                .add(JwtTokenProvider.EMAIL_CLAIM, "stale@example.com")
+                .add(JwtTokenProvider.ROLES_CLAIM, List.of("ADMIN"))
+                .build());
+        JwtUserDetails loaded = loadedUser(userId);
+
+        // When
+        filter(true).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertSame(loaded, authentication().getPrincipal());
+    }
+
+    @Test
+    void testValidationIsTimedByOutcome() throws Exception {
+        // Given
+        givenValidToken(Jwts.claims()
+                .subject(UUID.randomUUID().toString())
+                .add(JwtTokenProvider.EMAIL_CLAIM, "user@example.com")
+                .add(JwtTokenProvider.ROLES_CLAIM, List.of("USER"))
+                .build());
+        JwtAuthenticationFilter filter = filter(false);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertEquals(2, meterRegistry.get("jwt.token.validation").tag("valid", "true").timer().count());
+        assertEquals(0, meterRegistry.get("jwt.token.validation").tag("valid", "false").timer().count());
+    }
+
+    private JwtAuthenticationFilter filter(boolean strictPrincipal) {
+        return new JwtAuthenticationFilter(jwtTokenProvider, userService, meterRegistry, strictPrincipal);
+    }
+
+    private void givenValidToken(Claims claims) {
+        when(jwtTokenProvider.extractJwtFromRequest(request)).thenReturn("access");
+        when(jwtTokenProvider.validateToken("access"))
+                .thenReturn(new JwtTokenProvider.TokenValidationResult(true, null, null, claims));
+    }
+
+    private JwtUserDetails loadedUser(String userId) {
+        User user = User.builder().email("user@example.com").roleNames(List.of("USER")).build();
+        user.setId(UUID.fromString(userId));
+        JwtUserDetails userDetails = JwtUserDetails.create(user);
+        when(userService.loadUserById(userId)).thenReturn(userDetails);
+        return userDetails;
+    }
+
+    private static Authentication authentication() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,61 @@
+package com.securevault.main.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+class JwtUserDetailsTest {
+
+    @Test
+    void testCreateFromClaims() {
+        // Given
+        String userId = UUID.randomUUID().toString();
+        Claims claims = Jwts.claims()
+                .subject(userId)
+                .add(JwtTokenProvider.EMAIL_CLAIM, "user@example.com")
+                .add(JwtTokenProvider.ROLES_CLAIM, List.of("USER", "ADMIN"))
+                .build();
+
+        // When
+        JwtUserDetails userDetails = JwtUserDetails.create(claims);
+
+        // Then
+        assertEquals(userId, userDetails.getId());
+        assertEquals("user@example.com", userDetails.getEmail());
+        assertNull(userDetails.getPassword());
+        assertEquals(List.of("USER", "ADMIN"),
+                userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testCreateFromClaimsWithoutEmail() {
+        // Given
+        Claims claims = Jwts.claims()
+                .subject(UUID.randomUUID().toString())
+                .add(JwtTokenProvider.ROLES_CLAIM, List.of("USER"))
+                .build();
+
+        // When / Then
+        assertNull(JwtUserDetails.create(claims));
+    }
+
+    @Test
+    void testCreateFromClaimsWithoutRoles() {
+        // Given
+        Claims claims = Jwts.claims()
+                .subject(UUID.randomUUID().toString())
+                .add(JwtTokenProvider.EMAIL_CLAIM, "user@example.com")
+                .build();
+
+        // When / Then
+        assertNull(JwtUserDetails.create(claims));
+    }
+}
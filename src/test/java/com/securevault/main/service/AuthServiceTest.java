@@ -0,0 +1,125 @@
+package com.securevault.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+
+import com.securevault.main.dto.response.auth.TokenResponse;
+import com.securevault.main.entity.JwtToken;
+import com.securevault.main.entity.User;
+import com.securevault.main.exception.InvalidTokenException;
+import com.securevault.main.exception.TokenReuseException;
+import com.securevault.main.security.JwtTokenProvider;
+import com.securevault.main.security.JwtUserDetails;
+import com.securevault.main.service.ratelimit.LoginRateLimiter;
+import com.securevault.main.service.session.JwtTokenStore;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private JwtTokenService jwtTokenService;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private HttpServletRequest httpServletRequest;
+
+    @Mock
+    private HttpServletResponse httpServletResponse;
+
+    @Mock
+    private MessageSourceService messageSourceService;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        authService = new AuthService(authenticationManager, userService, jwtTokenService, jwtTokenProvider,
+                httpServletRequest, httpServletResponse, messageSourceService, loginRateLimiter);
+    }
+
+    @Test
+    void testReplayOfRotatedRefreshTokenRevokesAllSessions() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().email("user@example.com").roleNames(List.of("USER")).build();
+        user.setId(userId);
+        JwtToken session = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("old-access")
+                .refreshToken("old-refresh").rememberMe(false).build();
+        Claims claims = Jwts.claims().subject(userId.toString())
+                .add(JwtTokenProvider.TOKEN_TYPE_CLAIM, JwtTokenProvider.REFRESH_TOKEN_TYPE).build();
+
+        when(jwtTokenProvider.validateToken("old-refresh")).thenReturn(
+                new JwtTokenProvider.TokenValidationResult(true, null, session, claims),
+                new JwtTokenProvider.TokenValidationResult(false, "reuse", null, claims, true));
+        when(userService.findById(userId.toString())).thenReturn(user);
+        when(jwtTokenProvider.generateJwt(any(JwtUserDetails.class))).thenReturn("new-access");
+        when(jwtTokenProvider.generateRefresh(anyString())).thenReturn("new-refresh");
+        when(jwtTokenProvider.getRefreshTokenExpiresIn()).thenReturn(60_000L);
+        when(jwtTokenService.rotate(eq(session), any(JwtToken.class)))
+                .thenReturn(JwtTokenStore.RotationStatus.ROTATED);
+        when(messageSourceService.get("token_reuse_detected")).thenReturn("Security violation detected");
+
+        // When
+        TokenResponse response = authService.refreshFromCookie("old-refresh");
+
+        // Then
+        assertEquals("new-access", response.getToken());
+        verify(jwtTokenService, never()).deleteAllByUserId(any());
+
+        // When
+        assertThrows(TokenReuseException.class, () -> authService.refreshFromCookie("old-refresh"));
+
+        // Then
+        verify(jwtTokenService).deleteAllByUserId(userId);
+        verify(jwtTokenService, times(1)).rotate(any(), any());
+    }
+
+    @Test
+    void testAccessTokenIsNotAcceptedForRefresh() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        JwtToken session = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("access")
+                .refreshToken("refresh").build();
+        Claims claims = Jwts.claims().subject(userId.toString())
+                .add(JwtTokenProvider.TOKEN_TYPE_CLAIM, JwtTokenProvider.ACCESS_TOKEN_TYPE).build();
+        when(jwtTokenProvider.validateToken("access"))
+                .thenReturn(new JwtTokenProvider.TokenValidationResult(true, null, session, claims));
+
+        // When / Then
+        assertThrows(InvalidTokenException.class, () -> authService.refreshFromCookie("access"));
+        verify(jwtTokenService, never()).rotate(any(), any());
+    }
+}
@@ -0,0 +1,151 @@
+package com.securevault.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.securevault.main.entity.User;
+import com.securevault.main.exception.NotFoundException;
+import com.securevault.main.repository.UserRepository;
+import com.securevault.main.service.session.JwtTokenRevocationList;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private MessageSourceService messageSourceService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JwtTokenRevocationList jwtTokenRevocationList;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userRepository, roleService, messageSourceService, passwordEncoder,
+                mongoTemplate, jwtTokenRevocationList);
+    }
+
+    @Test
+    void testIncrementPipelineLocksFromTheFifthAttempt() {
+        // Given
+        User user = userWithAttempts(3);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(User.class))).thenReturn(user);
+        Instant before = Instant.now();
+
+        // When
+        userService.incrementFailedLoginAttempts("user@example.com");
+
+        // Then the first stage counts the attempt
+        List<Document> pipeline = ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(2, pipeline.size());
+        Document count = pipeline.get(0).get("$set", Document.class).get("failedLoginAttempts", Document.class);
+        assertEquals(List.of(new Document("$ifNull", List.of("$failedLoginAttempts", 0)), 1), count.get("$add"));
+
+        // And the second one sets the lock from the incremented count on
+        Document cond = pipeline.get(1).get("$set", Document.class).get("lockedUntil", Document.class)
+                .get("$cond", Document.class);
+        assertEquals(new Document("$gte", List.of("$failedLoginAttempts", 5)), cond.get("if"));
+        assertEquals("$lockedUntil", cond.get("else"));
+        Date lockedUntil = assertInstanceOf(Date.class, cond.get("then"));
+        Instant expected = before.plus(Duration.ofMinutes(30));
+        assertTrue(!lockedUntil.toInstant().isBefore(expected.minusSeconds(1))
+                && !lockedUntil.toInstant().isAfter(expected.plusSeconds(5)));
+
+        verify(jwtTokenRevocationList, never()).revokeUser(any());
+    }
+
+    @Test
+    void testIncrementRevokesUserOnLockAndReLock() {
+        // Given
+        User locked = userWithAttempts(5);
+        User relocked = userWithAttempts(6);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(User.class))).thenReturn(locked, relocked);
+
+        // When
+        userService.incrementFailedLoginAttempts("user@example.com");
+        userService.incrementFailedLoginAttempts("user@example.com");
+
+        // Then
+        verify(jwtTokenRevocationList).revokeUser(locked.getId());
+        verify(jwtTokenRevocationList).revokeUser(relocked.getId());
+    }
+
+    @Test
+    void testIncrementUnknownUser() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(User.class))).thenReturn(null);
+
+        // When / Then
+        assertThrows(NotFoundException.class, () -> userService.incrementFailedLoginAttempts("user@example.com"));
+    }
+
+    @Test
+    void testResetUnsetsLock() {
+        // Given
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+
+        // When
+        userService.resetFailedLoginAttempts("user@example.com");
+
+        // Then
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(User.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(new Document("failedLoginAttempts", 0), updateObject.get("$set"));
+        assertEquals(new Document("lockedUntil", 1), updateObject.get("$unset"));
+        assertEquals(List.of(new Document("failedLoginAttempts", new Document("$ne", 0)),
+                new Document("lockedUntil", new Document("$ne", null))),
+                query.getValue().getQueryObject().get("$or"));
+    }
+
+    private static User userWithAttempts(int failedLoginAttempts) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFailedLoginAttempts(failedLoginAttempts);
+        return user;
+    }
+}
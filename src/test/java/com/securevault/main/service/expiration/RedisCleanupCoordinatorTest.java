@@ -0,0 +1,119 @@
+package com.securevault.main.service.expiration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCleanupCoordinatorTest {
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisScriptingCommands scriptingCommands;
+
+    private RedisCleanupProperties cleanupProperties;
+
+    private RedisCleanupCoordinator cleanupCoordinator;
+
+    @BeforeEach
+    void setUp() {
+        cleanupProperties = new RedisCleanupProperties();
+        cleanupCoordinator = new RedisCleanupCoordinator(cleanupProperties);
+        lenient().when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+    }
+
+    @Test
+    void testAcquireReturnsLeaseWithFencingToken() {
+        // Given
+        when(scriptingCommands.evalSha(anyString(), eq(ReturnType.INTEGER), eq(2), any(byte[][].class)))
+                .thenReturn(7L);
+
+        // When
+        RedisCleanupCoordinator.Lease lease = cleanupCoordinator.acquire(connection);
+
+        // Then
+        assertNotNull(lease);
+        assertEquals(0, lease.getShard());
+        assertEquals(7, lease.getFencingToken());
+        assertTrue(lease.getValue().endsWith(":7"));
+        assertEquals("redis_cleanup:cursors:0", lease.getCursorsKey());
+        assertEquals("jwt_tokens:userId:*", lease.pattern("jwt_tokens:userId:"));
+    }
+
+    @Test
+    void testAcquireReturnsNullWhenEveryShardIsLeased() {
+        // Given
+        cleanupProperties.setShards(3);
+        when(scriptingCommands.evalSha(anyString(), eq(ReturnType.INTEGER), eq(2), any(byte[][].class)))
+                .thenReturn(0L);
+
+        // When
+        RedisCleanupCoordinator.Lease lease = cleanupCoordinator.acquire(connection);
+
+        // Then
+        assertNull(lease);
+    }
+
+    @Test
+    void testRenewIfDueMarksLeaseLost() {
+        // Given
+        cleanupProperties.setLeaseTtl(Duration.ofSeconds(30));
+        RedisCleanupCoordinator.Lease lease = new RedisCleanupCoordinator.Lease(0, 1, "redis_cleanup:lease:0",
+                "owner:1", 1, System.currentTimeMillis() + 1_000);
+        when(scriptingCommands.evalSha(anyString(), eq(ReturnType.INTEGER), eq(1), any(byte[][].class)))
+                .thenReturn(0L);
+
+        // When
+        boolean held = cleanupCoordinator.renewIfDue(connection, lease);
+
+        // Then
+        assertFalse(held);
+        assertTrue(lease.isLost());
+    }
+
+    @Test
+    void testRenewIfDueSkipsFreshLease() {
+        // Given
+        RedisCleanupCoordinator.Lease lease = new RedisCleanupCoordinator.Lease(0, 1, "redis_cleanup:lease:0",
+                "owner:1", 1, System.currentTimeMillis() + 30_000);
+
+        // When
+        boolean held = cleanupCoordinator.renewIfDue(connection, lease);
+
+        // Then
+        assertTrue(held);
+        verify(scriptingCommands, never()).evalSha(anyString(), any(ReturnType.class), any(Integer.class),
+                any(byte[][].class));
+    }
+
+    @Test
+    void testShardCharacterClassesCoverKeyspace() {
+        assertEquals("", RedisCleanupCoordinator.shardCharacterClass(0, 1));
+        assertEquals("[02468ace]", RedisCleanupCoordinator.shardCharacterClass(0, 2));
+        assertEquals("[^02468ace]", RedisCleanupCoordinator.shardCharacterClass(1, 2));
+        assertEquals("[147ad]", RedisCleanupCoordinator.shardCharacterClass(1, 3));
+        assertEquals("[^0134679acdf]", RedisCleanupCoordinator.shardCharacterClass(2, 3));
+    }
+}
@@ -0,0 +1,72 @@
+package com.securevault.main.service.expiration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RedisCleanupExecutorTest {
+
+    private RedisCleanupExecutor cleanupExecutor;
+
+    @BeforeEach
+    void setUp() {
+        RedisCleanupProperties cleanupProperties = new RedisCleanupProperties();
+        cleanupProperties.setParallelism(4);
+        cleanupProperties.setMaxInFlightCommands(2);
+        cleanupExecutor = new RedisCleanupExecutor(cleanupProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanupExecutor.shutdown();
+    }
+
+    @Test
+    void testInvokeAllKeepsTaskOrder() throws InterruptedException {
+        // Given
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int task = i;
+            tasks.add(() -> task);
+        }
+
+        // When
+        List<Integer> results = cleanupExecutor.invokeAll(tasks);
+
+        // Then
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), results);
+    }
+
+    @Test
+    void testCommandsInFlightAreLimited() throws InterruptedException {
+        // Given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> cleanupExecutor.command(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return inFlight.decrementAndGet();
+            }));
+        }
+
+        // When
+        cleanupExecutor.invokeAll(tasks);
+
+        // Then
+        assertTrue(maxInFlight.get() <= 2);
+    }
+}
@@ -0,0 +1,88 @@
+package com.securevault.main.service.expiration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RedisCleanupMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RedisCleanupMetrics cleanupMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cleanupMetrics = new RedisCleanupMetrics(meterRegistry, new RedisCleanupPacer(new RedisCleanupProperties()));
+    }
+
+    @Test
+    void testRecordRunTagsOutcome() {
+        // Given
+        RedisCleanupService.CleanupResult skipped = new RedisCleanupService.CleanupResult();
+        skipped.markSkipped();
+        RedisCleanupService.CleanupResult exhausted = new RedisCleanupService.CleanupResult();
+        exhausted.markBudgetExhausted();
+        RedisCleanupService.CleanupResult failed = new RedisCleanupService.CleanupResult();
+        failed.incrementErrors();
+
+        // When
+        cleanupMetrics.recordRun(skipped);
+        cleanupMetrics.recordRun(exhausted);
+        cleanupMetrics.recordRun(failed);
+
+        // Then
+        assertEquals(1, runCount(RedisCleanupMetrics.OUTCOME_SKIPPED));
+        assertEquals(1, runCount(RedisCleanupMetrics.OUTCOME_BUDGET_EXHAUSTED));
+        assertEquals(1, runCount(RedisCleanupMetrics.OUTCOME_FAILED));
+        assertEquals(2, meterRegistry.get(RedisCleanupMetrics.REDIS_LATENCY).timer().count());
+    }
+
+    @Test
+    void testLastSuccessOnlyAdvancesWithoutErrors() {
+        // Given
+        RedisCleanupService.CleanupResult failed = new RedisCleanupService.CleanupResult();
+        failed.incrementErrors();
+
+        // When
+        cleanupMetrics.recordRun(failed);
+
+        // Then
+        assertEquals(0, lastSuccess());
+
+        // When
+        cleanupMetrics.recordRun(new RedisCleanupService.CleanupResult());
+
+        // Then
+        assertTrue(lastSuccess() > 0);
+    }
+
+    @Test
+    void testPacerGauges() {
+        assertEquals(600, meterRegistry.get(RedisCleanupMetrics.INTERVAL).gauge().value());
+        assertEquals(5, meterRegistry.get(RedisCleanupMetrics.TIME_BUDGET).gauge().value());
+    }
+
+    @Test
+    void testTimeCommand() {
+        // When
+        String reply = cleanupMetrics.timeCommand("scan", "jwt_tokens", () -> "OK");
+
+        // Then
+        assertEquals("OK", reply);
+        assertEquals(1, meterRegistry.get(RedisCleanupMetrics.COMMAND)
+                .tags("command", "scan", "entity", "jwt_tokens").timer().count());
+    }
+
+    private long runCount(String outcome) {
+        return meterRegistry.get(RedisCleanupMetrics.RUN).tag("outcome", outcome).timer().count();
+    }
+
+    private double lastSuccess() {
+        return meterRegistry.get(RedisCleanupMetrics.LAST_SUCCESS).gauge().value();
+    }
+}
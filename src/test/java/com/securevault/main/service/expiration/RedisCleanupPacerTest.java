@@ -0,0 +1,94 @@
+package com.securevault.main.service.expiration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RedisCleanupPacerTest {
+
+    private RedisCleanupProperties cleanupProperties;
+
+    private RedisCleanupPacer cleanupPacer;
+
+    @BeforeEach
+    void setUp() {
+        cleanupProperties = new RedisCleanupProperties();
+        cleanupProperties.setInterval(Duration.ofMinutes(10));
+        cleanupProperties.setTimeBudget(Duration.ofSeconds(5));
+        cleanupPacer = new RedisCleanupPacer(cleanupProperties);
+    }
+
+    @Test
+    void testSpeedsUpWhenOrphansPileUp() {
+        // When
+        cleanupPacer.record(result(1_000, 200, 1));
+
+        // Then
+        assertEquals(Duration.ofMinutes(5), cleanupPacer.getInterval());
+        assertEquals(Duration.ofSeconds(10), cleanupPacer.getTimeBudget());
+    }
+
+    @Test
+    void testSlowsDownWhenNothingIsStale() {
+        // When
+        cleanupPacer.record(result(1_000, 0, 1));
+
+        // Then
+        assertEquals(Duration.ofMinutes(15), cleanupPacer.getInterval());
+        assertEquals(Duration.ofSeconds(5), cleanupPacer.getTimeBudget());
+    }
+
+    @Test
+    void testBacksOffWhenRedisIsBusy() {
+        // When
+        cleanupPacer.record(result(1_000, 200, 80));
+
+        // Then
+        assertEquals(Duration.ofMinutes(20), cleanupPacer.getInterval());
+        assertEquals(Duration.ofSeconds(5), cleanupPacer.getTimeBudget());
+    }
+
+    @Test
+    void testStaysWithinFloorAndCeiling() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            cleanupPacer.record(result(1_000, 500, 1));
+        }
+
+        // Then
+        assertEquals(cleanupProperties.getMinInterval(), cleanupPacer.getInterval());
+        assertEquals(cleanupProperties.getMaxTimeBudget(), cleanupPacer.getTimeBudget());
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            cleanupPacer.record(result(1_000, 0, 1));
+        }
+
+        // Then
+        assertEquals(cleanupProperties.getMaxInterval(), cleanupPacer.getInterval());
+    }
+
+    @Test
+    void testIgnoresSkippedRuns() {
+        // Given
+        RedisCleanupService.CleanupResult result = new RedisCleanupService.CleanupResult();
+        result.markSkipped();
+
+        // When
+        cleanupPacer.record(result);
+
+        // Then
+        assertEquals(Duration.ofMinutes(10), cleanupPacer.getInterval());
+    }
+
+    private static RedisCleanupService.CleanupResult result(long checked, int cleaned, long latencyMs) {
+        RedisCleanupService.CleanupResult result = new RedisCleanupService.CleanupResult();
+        result.addMembersChecked(checked);
+        result.addCleanedEntries(cleaned);
+        result.recordLatency(latencyMs);
+        return result;
+    }
+}
@@ -1,11 +1,14 @@
 package com.securevault.main.service.expiration;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,11 +25,14 @@ class RedisCleanupSchedulerTest {
     @Mock
     private RedisEntityDiscoveryService entityDiscoveryService;
 
+    private RedisCleanupPacer cleanupPacer;
+
     private RedisCleanupScheduler scheduler;
 
     @BeforeEach
     void setUp() {
-        scheduler = new RedisCleanupScheduler(cleanupService, entityDiscoveryService);
+        cleanupPacer = new RedisCleanupPacer(new RedisCleanupProperties());
+        scheduler = new RedisCleanupScheduler(cleanupService, entityDiscoveryService, cleanupPacer);
     }
 
     @Test
@@ -51,13 +57,13 @@ class RedisCleanupSchedulerTest {
         ReflectionTestUtils.setField(scheduler, "cleanupInterval", 60000L);
 
         RedisCleanupService.CleanupResult mockResult = new RedisCleanupService.CleanupResult();
-        when(cleanupService.performCleanup()).thenReturn(mockResult);
+        when(cleanupService.performCleanup(cleanupPacer.getTimeBudget())).thenReturn(mockResult);
 
         // When
         scheduler.scheduledCleanup();
 
         // Then
-        verify(cleanupService, times(1)).performCleanup();
+        verify(cleanupService, times(1)).performCleanup(cleanupPacer.getTimeBudget());
     }
 
     @Test
@@ -70,7 +76,7 @@ class RedisCleanupSchedulerTest {
         scheduler.scheduledCleanup();
 
         // Then
-        verify(cleanupService, never()).performCleanup();
+        verify(cleanupService, never()).performCleanup(any(Duration.class));
     }
 
     @Test
@@ -90,13 +96,13 @@ class RedisCleanupSchedulerTest {
 
         RedisCleanupService.CleanupResult mockResult = new RedisCleanupService.CleanupResult();
         mockResult.incrementErrors();
-        when(cleanupService.performCleanup()).thenReturn(mockResult);
+        when(cleanupService.performCleanup(cleanupPacer.getTimeBudget())).thenReturn(mockResult);
 
         // When
         scheduler.scheduledCleanup();
 
         // Then
-        verify(cleanupService, times(1)).performCleanup();
+        verify(cleanupService, times(1)).performCleanup(cleanupPacer.getTimeBudget());
     }
 
     @Test
@@ -108,12 +114,12 @@ class RedisCleanupSchedulerTest {
         RedisCleanupService.CleanupResult mockResult = new RedisCleanupService.CleanupResult();
         mockResult.incrementEntitiesProcessed();
         mockResult.addCleanedEntries(5);
-        when(cleanupService.performCleanup()).thenReturn(mockResult);
+        when(cleanupService.performCleanup(cleanupPacer.getTimeBudget())).thenReturn(mockResult);
 
         // When
         scheduler.scheduledCleanup();
 
         // Then
-        verify(cleanupService, times(1)).performCleanup();
+        verify(cleanupService, times(1)).performCleanup(cleanupPacer.getTimeBudget());
     }
 }
\ No newline at end of file
@@ -4,9 +4,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -14,62 +29,169 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SetOperations;
 
 import com.securevault.main.entity.JwtToken;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class RedisCleanupServiceTest {
 
+    private static final String INDEX_KEY = "jwt_tokens:userId:123";
+
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
 
     @Mock
-    private ApplicationContext applicationContext;
+    private RedisConnection connection;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
 
     @Mock
-    private SetOperations<String, Object> setOperations;
+    private RedisHashCommands hashCommands;
+
+    @Mock
+    private RedisScriptingCommands scriptingCommands;
 
     @Mock
     private RedisEntityDiscoveryService entityDiscoveryService;
 
+    @Mock
+    private RedisCleanupCoordinator cleanupCoordinator;
+
+    private RedisCleanupCoordinator.Lease lease;
+
+    private RedisCleanupProperties cleanupProperties;
+
     private RedisCleanupService cleanupService;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private final List<List<String>> reconcileCalls = new ArrayList<>();
+
+    private final Map<String, Deque<List<Object>>> reconcileReplies = new HashMap<>();
+
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        cleanupService = new RedisCleanupService(redisTemplate, entityDiscoveryService);
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        cleanupProperties = new RedisCleanupProperties();
+        cleanupProperties.setParallelism(1);
+        meterRegistry = new SimpleMeterRegistry();
+        cleanupService = new RedisCleanupService(redisTemplate, entityDiscoveryService, cleanupProperties,
+                cleanupCoordinator, new RedisCleanupExecutor(cleanupProperties),
+                new RedisCleanupMetrics(meterRegistry, new RedisCleanupPacer(cleanupProperties)));
+        lease = new RedisCleanupCoordinator.Lease(0, 1, "redis_cleanup:lease:0", "owner:1", 1,
+                Long.MAX_VALUE);
+
+        lenient().when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        lenient().when(connection.keyCommands()).thenReturn(keyCommands);
+        lenient().when(connection.hashCommands()).thenReturn(hashCommands);
+        lenient().when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+        lenient().when(cleanupCoordinator.acquire(connection)).thenReturn(lease);
+        lenient().when(cleanupCoordinator.renewIfDue(connection, lease)).thenReturn(true);
+        lenient().when(cleanupCoordinator.saveCursor(eq(connection), eq(lease), anyString(), anyString()))
+                .thenReturn(true);
     }
 
     @Test
     void testPerformCleanup() {
         // Given
-        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[] { "jwtToken" });
-        when(applicationContext.getType("jwtToken")).thenReturn(null);
-        when(redisTemplate.keys("jwt_tokens:*")).thenReturn(Set.of("jwt_tokens:test-id"));
-        when(redisTemplate.getExpire("jwt_tokens:test-id")).thenReturn(0L); // Expired
-        when(redisTemplate.keys("jwt_tokens:userId:*")).thenReturn(Set.of("jwt_tokens:userId:123"));
-        when(setOperations.remove(anyString(), anyString())).thenReturn(1L);
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        givenScanReply("0", "0", List.of(INDEX_KEY));
+        givenReconcileReplies(INDEX_KEY, reconcileReply("0", 2, 1));
 
         // When
         RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
 
         // Then
         assertNotNull(result);
-        assertEquals(0, result.getEntitiesProcessed());
-        assertEquals(0, result.getIndexEntriesCleaned());
+        assertEquals(1, result.getEntitiesProcessed());
+        assertEquals(1, result.getIndexEntriesCleaned());
+        assertEquals(1, result.getKeysScanned());
+        assertEquals(2, result.getMembersChecked());
         assertEquals(0, result.getErrors());
+        assertFalse(result.isBudgetExhausted());
+        verify(cleanupCoordinator).saveCursor(connection, lease, "jwt_tokens:userId", RedisCleanupService.CURSOR_DONE);
+    }
+
+    @Test
+    void testPerformCleanupRecordsMetricsPerField() {
+        // Given
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        givenScanReply("0", "0", List.of(INDEX_KEY));
+        givenReconcileReplies(INDEX_KEY, reconcileReply("0", 2, 1));
+
+        // When
+        cleanupService.performCleanup();
+
+        // Then
+        assertEquals(1, meterRegistry.get(RedisCleanupMetrics.KEYS_SCANNED)
+                .tags("entity", "jwt_tokens", "field", "userId").counter().count());
+        assertEquals(2, meterRegistry.get(RedisCleanupMetrics.MEMBERS_CHECKED)
+                .tags("entity", "jwt_tokens", "field", "userId").counter().count());
+        assertEquals(1, meterRegistry.get(RedisCleanupMetrics.ENTRIES_REMOVED)
+                .tags("entity", "jwt_tokens", "field", "userId").counter().count());
+        assertEquals(1, meterRegistry.get(RedisCleanupMetrics.TASK)
+                .tags("entity", "jwt_tokens", "field", RedisCleanupMetrics.MAIN_SET_FIELD).timer().count());
+        assertEquals(1, meterRegistry.get(RedisCleanupMetrics.COMMAND)
+                .tags("command", "scan", "entity", "jwt_tokens").timer().count());
+        assertEquals(1, meterRegistry.get(RedisCleanupMetrics.RUN)
+                .tag("outcome", RedisCleanupMetrics.OUTCOME_COMPLETED).timer().count());
+    }
+
+    @Test
+    void testPerformCleanupReconcilesMainSet() {
+        // Given
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        givenScanReply("0", "0", List.of());
+        givenReconcileReplies("jwt_tokens", reconcileReply("0", 1, 1));
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
+
+        // Then
+        assertEquals(1, result.getIndexEntriesCleaned());
+        assertEquals(List.of("jwt_tokens", "0", "500", "jwt_tokens", "1", "*"), reconcileCalls.get(0));
+    }
+
+    @Test
+    void testPerformCleanupReconcilesSetsInChunks() {
+        // Given
+        cleanupProperties.setBatchSize(2);
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        givenScanReply("0", "0", List.of(INDEX_KEY));
+        givenReconcileReplies(INDEX_KEY, reconcileReply("7", 2, 0), reconcileReply("0", 1, 0));
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
+
+        // Then
+        assertEquals(3, result.getMembersChecked());
+        assertEquals(0, result.getIndexEntriesCleaned());
+        assertEquals(List.of(INDEX_KEY, "0", "2", "jwt_tokens", "0", "*"), reconcileCalls.get(1));
+        assertEquals(List.of(INDEX_KEY, "7", "2", "jwt_tokens", "0", "*"), reconcileCalls.get(2));
     }
 
     @Test
     void testPerformCleanupNoExpiredTokens() {
         // Given
-        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[] { "jwtToken" });
-        when(applicationContext.getType("jwtToken")).thenReturn(null);
-        when(redisTemplate.keys("jwt_tokens:*")).thenReturn(Set.of("jwt_tokens:test-id"));
-        when(redisTemplate.getExpire("jwt_tokens:test-id")).thenReturn(3600L); // Not expired
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        givenScanReply("0", "0", List.of(INDEX_KEY));
+        givenReconcileReplies(INDEX_KEY, reconcileReply("0", 1, 0));
 
         // When
         RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
@@ -81,12 +203,42 @@ class RedisCleanupServiceTest {
         assertEquals(0, result.getErrors());
     }
 
+    @Test
+    void testPerformCleanupSkippedWhenEveryShardIsLeased() {
+        // Given
+        givenJwtTokenEntity();
+        when(cleanupCoordinator.acquire(connection)).thenReturn(null);
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
+
+        // Then
+        assertTrue(result.isSkipped());
+        assertEquals(0, result.getMembersChecked());
+        verify(cleanupCoordinator, never()).release(any(), any());
+    }
+
+    @Test
+    void testPerformCleanupStopsWhenLeaseIsLost() {
+        // Given
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        when(cleanupCoordinator.renewIfDue(connection, lease)).thenReturn(true, false);
+        givenReconcileReplies("jwt_tokens", reconcileReply("9", 1, 0));
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
+
+        // Then
+        assertEquals(1, reconcileCalls.size());
+        verify(scriptingCommands, never()).evalSha(anyString(), eq(ReturnType.MULTI), eq(0), any(byte[][].class));
+        verify(cleanupCoordinator).release(connection, lease);
+    }
+
     @Test
     void testPerformCleanupNoTokens() {
         // Given
-        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[] { "jwtToken" });
-        when(applicationContext.getType("jwtToken")).thenReturn(null);
-        when(redisTemplate.keys("jwt_tokens:*")).thenReturn(Set.of());
+        when(entityDiscoveryService.getEntitiesNeedingCleanup()).thenReturn(Map.of());
 
         // When
         RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
@@ -99,26 +251,71 @@ class RedisCleanupServiceTest {
     }
 
     @Test
-    void testHasTtlAndIndexedFields() {
-        // Test JWT token class
-        assertTrue(RedisEntityDiscoveryService.hasTtlAndIndexedFields(JwtToken.class));
+    void testPerformCleanupResumesFromPersistedCursor() {
+        // Given
+        givenJwtTokenEntity();
+        givenCursors(Map.of("jwt_tokens:userId", "42"));
+        givenScanReply("42", "0", List.of());
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
 
-        // Test a class without annotations
-        assertFalse(RedisEntityDiscoveryService.hasTtlAndIndexedFields(String.class));
+        // Then
+        assertEquals(0, result.getErrors());
+        verify(cleanupCoordinator).saveCursor(connection, lease, "jwt_tokens:userId", RedisCleanupService.CURSOR_DONE);
     }
 
     @Test
-    void testGetDiscoveredEntities() {
+    void testPerformCleanupStartsNewPassWhenPreviousFinished() {
         // Given
-        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[] { "jwtToken" });
-        when(applicationContext.getType("jwtToken")).thenReturn(null);
+        givenJwtTokenEntity();
+        givenCursors(Map.of("jwt_tokens:userId", RedisCleanupService.CURSOR_DONE));
+        givenScanReply("0", "0", List.of());
 
         // When
-        java.util.Map<String, java.util.Map<String, Object>> entities = entityDiscoveryService.getDiscoveredEntities();
+        cleanupService.performCleanup();
 
         // Then
-        assertNotNull(entities);
-        assertTrue(entities.isEmpty());
+        verify(keyCommands).del(aryEq(bytes(lease.getCursorsKey())));
+    }
+
+    @Test
+    void testPerformCleanupPersistsCursorWhenBudgetExhausted() {
+        // Given
+        cleanupProperties.setTimeBudget(Duration.ofMillis(500));
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        when(scriptingCommands.evalSha(anyString(), eq(ReturnType.MULTI), eq(0), any(byte[][].class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(600);
+                    return List.of(bytes("17"), List.of());
+                });
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
+
+        // Then
+        assertTrue(result.isBudgetExhausted());
+        verify(cleanupCoordinator).saveCursor(connection, lease, "jwt_tokens:userId", "17");
+    }
+
+    @Test
+    void testPerformCleanupRecordsSlowestCommandAsLatency() {
+        // Given
+        givenJwtTokenEntity();
+        givenCursors(Map.of());
+        when(scriptingCommands.evalSha(anyString(), eq(ReturnType.MULTI), eq(0), any(byte[][].class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(100);
+                    return List.of(bytes("0"), List.of());
+                });
+
+        // When
+        RedisCleanupService.CleanupResult result = cleanupService.performCleanup();
+
+        // Then
+        assertTrue(result.getMaxLatencyMs() >= 100);
+        verify(connection, never()).ping();
     }
 
     @Test
@@ -129,12 +326,57 @@ class RedisCleanupServiceTest {
         // When
         result.incrementEntitiesProcessed();
         result.addCleanedEntries(5);
+        result.addKeysScanned(3);
+        result.addMembersChecked(7);
         result.incrementErrors();
 
         // Then
         assertEquals(1, result.getEntitiesProcessed());
         assertEquals(5, result.getIndexEntriesCleaned());
+        assertEquals(3, result.getKeysScanned());
+        assertEquals(7, result.getMembersChecked());
         assertEquals(1, result.getErrors());
         assertTrue(result.getDurationMs() >= 0);
     }
-}
\ No newline at end of file
+
+    private void givenJwtTokenEntity() {
+        when(entityDiscoveryService.getEntitiesNeedingCleanup()).thenReturn(Map.of(JwtToken.class,
+                new RedisEntityDiscoveryService.EntityMetadata("jwt_tokens", Set.of("userId"), true)));
+        lenient().when(scriptingCommands.evalSha(anyString(), eq(ReturnType.MULTI), eq(1), any(byte[][].class)))
+                .thenAnswer(invocation -> {
+                    List<String> call = Arrays.stream((byte[][]) invocation.getRawArguments()[3])
+                            .map(value -> new String(value, StandardCharsets.UTF_8)).toList();
+                    reconcileCalls.add(call);
+                    Deque<List<Object>> replies = reconcileReplies.get(call.get(0));
+                    return replies == null || replies.isEmpty() ? reconcileReply("0", 0, 0) : replies.poll();
+                });
+    }
+
+    @SafeVarargs
+    private void givenReconcileReplies(String key, List<Object>... replies) {
+        reconcileReplies.put(key, new ArrayDeque<>(List.of(replies)));
+    }
+
+    private static List<Object> reconcileReply(String nextCursor, long checked, long removed) {
+        return List.of(bytes(nextCursor), checked, removed);
+    }
+
+    private void givenCursors(Map<String, String> cursors) {
+        Map<byte[], byte[]> entries = new HashMap<>();
+        cursors.forEach((field, cursor) -> entries.put(bytes(field), bytes(cursor)));
+        when(hashCommands.hGetAll(aryEq(bytes(lease.getCursorsKey())))).thenReturn(entries);
+    }
+
+    private void givenScanReply(String cursor, String nextCursor, List<String> keys) {
+        when(scriptingCommands.evalSha(anyString(), eq(ReturnType.MULTI), eq(0), any(byte[][].class)))
+                .thenAnswer(invocation -> {
+                    byte[] requestedCursor = ((byte[][]) invocation.getRawArguments()[3])[0];
+                    assertEquals(cursor, new String(requestedCursor, StandardCharsets.UTF_8));
+                    return List.of(bytes(nextCursor), keys.stream().map(RedisCleanupServiceTest::bytes).toList());
+                });
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
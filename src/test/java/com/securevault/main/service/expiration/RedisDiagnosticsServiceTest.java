@@ -0,0 +1,150 @@
+package com.securevault.main.service.expiration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import com.securevault.main.dto.response.admin.RedisDiagnosticsResponse;
+import com.securevault.main.dto.response.admin.RedisEntityDiagnosticsResponse;
+import com.securevault.main.entity.JwtToken;
+
+@ExtendWith(MockitoExtension.class)
+class RedisDiagnosticsServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisSetCommands setCommands;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    @Mock
+    private RedisServerCommands serverCommands;
+
+    @Mock
+    private RedisEntityDiscoveryService entityDiscoveryService;
+
+    private RedisDiagnosticsProperties diagnosticsProperties;
+
+    private RedisDiagnosticsService diagnosticsService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        diagnosticsProperties = new RedisDiagnosticsProperties();
+        diagnosticsProperties.setSampleSize(2);
+        diagnosticsProperties.setRandomKeySamples(4);
+        diagnosticsService = new RedisDiagnosticsService(redisTemplate, entityDiscoveryService,
+                diagnosticsProperties);
+
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(connection.setCommands()).thenReturn(setCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(connection.serverCommands()).thenReturn(serverCommands);
+        when(entityDiscoveryService.getAllEntityMetadata()).thenReturn(Map.of(JwtToken.class,
+                new RedisEntityDiscoveryService.EntityMetadata("jwt_tokens", Set.of("userId"), true)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDiagnose() {
+        // Given
+        when(serverCommands.dbSize()).thenReturn(40L);
+        when(setCommands.sCard(aryEq(bytes("jwt_tokens")))).thenReturn(10L);
+        when(setCommands.sRandMember(aryEq(bytes("jwt_tokens")), any(Long.class)))
+                .thenReturn(List.of(bytes("live"), bytes("stale")));
+        Cursor<byte[]> indexKeys = cursorOf("jwt_tokens:userId:1", "jwt_tokens:userId:2", "jwt_tokens:userId:3");
+        when(keyCommands.scan(any(ScanOptions.class))).thenReturn(indexKeys);
+        when(connection.closePipeline()).thenReturn(
+                // RANDOMKEY probes
+                List.of(bytes("jwt_tokens:live"), bytes("jwt_token_digests:ab"), bytes("other"),
+                        bytes("jwt_tokens")),
+                // EXISTS of sampled ids
+                List.of(1L, 0L),
+                // SRANDMEMBER of sampled index sets
+                List.of(bytes("live"), bytes("stale")),
+                // EXISTS of sampled index members
+                List.of(true, false),
+                // MEMORY USAGE of each key family
+                List.of(200L), List.of(1000L), List.of(100L, 120L), List.of(80L));
+
+        // When
+        RedisDiagnosticsResponse response = diagnosticsService.diagnose();
+
+        // Then
+        assertEquals(40L, response.getKeyspaceSize());
+        assertEquals(4, response.getRandomKeySamples());
+
+        RedisEntityDiagnosticsResponse entity = response.getEntities().get(0);
+        assertEquals("JwtToken", entity.getEntity());
+        assertEquals(10L, entity.getMainSetCardinality());
+        assertEquals(0.5, entity.getMainSetOrphanRatio());
+        assertEquals(3L, entity.getIndexSets());
+        assertTrue(entity.getIndexSetsComplete());
+        assertEquals(0.5, entity.getIndexOrphanRatio());
+        assertEquals(0.5, entity.getKeyspaceShare());
+        assertEquals(2000L, entity.getMemory().get(0).getEstimatedBytes());
+        assertEquals(330L, entity.getMemory().get(2).getEstimatedBytes());
+    }
+
+    @Test
+    void testDiagnoseCapsIndexSetScan() {
+        // Given
+        diagnosticsProperties.setMaxScanKeys(2);
+        when(setCommands.sRandMember(aryEq(bytes("jwt_tokens")), any(Long.class))).thenReturn(List.of());
+        Cursor<byte[]> indexKeys = cursorOf("jwt_tokens:userId:1", "jwt_tokens:userId:2", "jwt_tokens:userId:3");
+        when(keyCommands.scan(any(ScanOptions.class))).thenReturn(indexKeys);
+        when(connection.closePipeline()).thenReturn(List.of());
+
+        // When
+        RedisEntityDiagnosticsResponse entity = diagnosticsService.diagnose().getEntities().get(0);
+
+        // Then
+        assertEquals(2L, entity.getIndexSets());
+        assertFalse(entity.getIndexSetsComplete());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<byte[]> cursorOf(String... keys) {
+        Iterator<byte[]> iterator = Stream.of(keys).map(RedisDiagnosticsServiceTest::bytes).iterator();
+        Cursor<byte[]> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -3,11 +3,16 @@ package com.securevault.main.service.expiration;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
 
 import com.securevault.main.entity.JwtToken;
 
@@ -32,7 +38,7 @@ class RedisEntityDiscoveryServiceTest {
     @BeforeEach
     void setUp() {
         lenient().when(discoveryProperties.getPackagePatterns()).thenReturn(List.of("com.securevault.main.entity"));
-        discoveryService = new RedisEntityDiscoveryService(discoveryProperties);
+        discoveryService = new RedisEntityDiscoveryService(discoveryProperties, new RedisMappingContext());
     }
 
     @Test
@@ -61,15 +67,6 @@ class RedisEntityDiscoveryServiceTest {
         assertTrue(metadata.getIndexedFieldNames().size() > 0);
     }
 
-    @Test
-    void testHasTtlAndIndexedFields() {
-        // Test JWT token class
-        assertTrue(RedisEntityDiscoveryService.hasTtlAndIndexedFields(JwtToken.class));
-
-        // Test a class without annotations
-        assertFalse(RedisEntityDiscoveryService.hasTtlAndIndexedFields(String.class));
-    }
-
     @Test
     void testGetEntitiesNeedingCleanup() {
         // Given
@@ -86,6 +83,37 @@ class RedisEntityDiscoveryServiceTest {
         assertTrue(entitiesNeedingCleanup.containsKey(JwtToken.class));
     }
 
+    @Test
+    void testGetEntityNeedingCleanupByHashName() {
+        // Given
+        discoveryService.discoverRedisEntities();
+
+        // When
+        RedisEntityDiscoveryService.EntityMetadata metadata = discoveryService.getEntityNeedingCleanup("jwt_tokens");
+
+        // Then
+        assertNotNull(metadata);
+        assertSame(discoveryService.getEntitiesNeedingCleanup().get(JwtToken.class), metadata);
+        assertSame(discoveryService.getEntitiesNeedingCleanup(), discoveryService.getEntitiesNeedingCleanup());
+        assertNull(discoveryService.getEntityNeedingCleanup("jwt_tokens:3f1c"));
+    }
+
+    @Test
+    void testSnapshotIsServedUntilReload() {
+        // Given
+        discoveryService.initialize();
+        Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> snapshot = discoveryService
+                .getAllEntityMetadata();
+
+        // When
+        Map<Class<?>, RedisEntityDiscoveryService.EntityMetadata> again = discoveryService.getAllEntityMetadata();
+
+        // Then
+        assertSame(snapshot, again);
+        assertEquals(Set.of("userId"), snapshot.get(JwtToken.class).getIndexedFieldNames());
+        verify(discoveryProperties, times(1)).getPackagePatterns();
+    }
+
     @Test
     void testEntityMetadata() {
         // Given
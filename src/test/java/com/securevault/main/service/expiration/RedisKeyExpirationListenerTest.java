@@ -0,0 +1,73 @@
+package com.securevault.main.service.expiration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@ExtendWith(MockitoExtension.class)
+class RedisKeyExpirationListenerTest {
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisEntityDiscoveryService entityDiscoveryService;
+
+    private RedisKeyExpirationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new RedisKeyExpirationListener(listenerContainer, stringRedisTemplate, entityDiscoveryService,
+                "0");
+        lenient().when(entityDiscoveryService.getEntityNeedingCleanup("jwt_tokens"))
+                .thenReturn(new RedisEntityDiscoveryService.EntityMetadata("jwt_tokens", Set.of("userId"), true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExpiredEntityIsRemovedFromIndexes() {
+        // When
+        listener.onMessage(expired("jwt_tokens:3f1c"), null);
+
+        // Then
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(List.of("jwt_tokens:3f1c", "jwt_tokens", "jwt_tokens:3f1c:idx")), eq("3f1c"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testHelperAndForeignKeysAreIgnored() {
+        // When
+        listener.onMessage(expired("jwt_tokens:3f1c:idx"), null);
+        listener.onMessage(expired("jwt_token_digests:ab12"), null);
+        listener.onMessage(expired("jwt_tokens"), null);
+
+        // Then
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    private static DefaultMessage expired(String key) {
+        return new DefaultMessage("__keyevent@0__:expired".getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8));
+    }
+}
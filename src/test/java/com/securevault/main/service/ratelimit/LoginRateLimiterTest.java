@@ -0,0 +1,112 @@
+package com.securevault.main.service.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.securevault.main.exception.TooManyRequestsException;
+import com.securevault.main.service.MessageSourceService;
+import com.securevault.main.util.TokenDigestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class LoginRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private MessageSourceService messageSourceService;
+
+    private LoginRateLimitProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoginRateLimitProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new LoginRateLimiter(properties, stringRedisTemplate, messageSourceService, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAllowedAttemptUsesIpAndEmailDigestKeys() {
+        // Given
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 0L));
+
+        // When
+        rateLimiter.check("10.0.0.1", "User@Example.com");
+
+        // Then
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), keys.capture(), any(Object[].class));
+        assertEquals(List.of(
+                LoginRateLimiter.KEYSPACE + ":ip:10.0.0.1",
+                LoginRateLimiter.KEYSPACE + ":email:" + TokenDigestUtils.digest("user@example.com")),
+                keys.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRejectedAttemptCarriesRetryAfter() {
+        // Given
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1500L, 2L));
+        when(messageSourceService.get(eq("too_many_login_attempts"))).thenReturn("Too many login attempts");
+
+        // When
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.check("10.0.0.1", "user@example.com"));
+
+        // Then
+        assertEquals(Duration.ofMillis(1500), e.getRetryAfter());
+        assertEquals(1, meterRegistry.get(LoginRateLimiter.THROTTLED).tag("scope", "email").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRedisFailureLetsAttemptThrough() {
+        // Given
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When / Then
+        assertDoesNotThrow(() -> rateLimiter.check("10.0.0.1", "user@example.com"));
+    }
+
+    @Test
+    void testDisabled() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        rateLimiter.check("10.0.0.1", "user@example.com");
+
+        // Then
+        verifyNoInteractions(stringRedisTemplate);
+    }
+}
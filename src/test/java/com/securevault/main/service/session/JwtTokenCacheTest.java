@@ -0,0 +1,127 @@
+package com.securevault.main.service.session;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.securevault.main.entity.JwtToken;
+import com.securevault.main.util.TokenDigestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenCacheTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private JwtTokenCacheProperties properties;
+
+    private JwtTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtTokenCacheProperties();
+        cache = new JwtTokenCache(properties, stringRedisTemplate, redisMessageListenerContainer);
+    }
+
+    @Test
+    void testPutAndGet() {
+        // Given
+        JwtToken jwtToken = jwtToken(UUID.randomUUID());
+        String digest = TokenDigestUtils.digest(jwtToken.getToken());
+
+        // When
+        cache.put(digest, jwtToken, new Date(System.currentTimeMillis() + 60_000));
+
+        // Then
+        assertTrue(cache.get(digest).isPresent());
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        // Given
+        JwtToken jwtToken = jwtToken(UUID.randomUUID());
+        String digest = TokenDigestUtils.digest(jwtToken.getToken());
+
+        // When
+        cache.put(digest, jwtToken, new Date(System.currentTimeMillis() - 1_000));
+
+        // Then
+        assertFalse(cache.get(digest).isPresent());
+    }
+
+    @Test
+    void testDisabledCache() {
+        // Given
+        properties.setEnabled(false);
+        JwtToken jwtToken = jwtToken(UUID.randomUUID());
+        String digest = TokenDigestUtils.digest(jwtToken.getToken());
+
+        // When
+        cache.put(digest, jwtToken, new Date(System.currentTimeMillis() + 60_000));
+
+        // Then
+        assertFalse(cache.get(digest).isPresent());
+    }
+
+    @Test
+    void testInvalidatePublishesBothDigests() {
+        // Given
+        JwtToken jwtToken = jwtToken(UUID.randomUUID());
+        String digest = TokenDigestUtils.digest(jwtToken.getToken());
+        cache.put(digest, jwtToken, new Date(System.currentTimeMillis() + 60_000));
+
+        // When
+        cache.invalidate(jwtToken);
+
+        // Then
+        assertFalse(cache.get(digest).isPresent());
+        verify(stringRedisTemplate).convertAndSend(properties.getInvalidationChannel(), "token:" + digest);
+        verify(stringRedisTemplate).convertAndSend(properties.getInvalidationChannel(),
+                "token:" + TokenDigestUtils.digest(jwtToken.getRefreshToken()));
+    }
+
+    @Test
+    void testUserInvalidationMessage() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        JwtToken userToken = jwtToken(userId);
+        JwtToken otherToken = jwtToken(UUID.randomUUID());
+        String userDigest = TokenDigestUtils.digest(userToken.getToken());
+        String otherDigest = TokenDigestUtils.digest(otherToken.getToken());
+        cache.put(userDigest, userToken, new Date(System.currentTimeMillis() + 60_000));
+        cache.put(otherDigest, otherToken, new Date(System.currentTimeMillis() + 60_000));
+
+        // When
+        cache.onMessage(new DefaultMessage(properties.getInvalidationChannel().getBytes(StandardCharsets.UTF_8),
+                ("user:" + userId).getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertFalse(cache.get(userDigest).isPresent());
+        assertTrue(cache.get(otherDigest).isPresent());
+    }
+
+    private JwtToken jwtToken(UUID userId) {
+        return JwtToken.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .token("access-" + UUID.randomUUID())
+                .refreshToken("refresh-" + UUID.randomUUID())
+                .build();
+    }
+}
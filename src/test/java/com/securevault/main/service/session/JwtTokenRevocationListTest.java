@@ -0,0 +1,148 @@
+package com.securevault.main.service.session;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenRevocationListTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private JwtTokenRevocationProperties properties;
+
+    private JwtTokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtTokenRevocationProperties();
+        properties.setStatelessAccessTokens(true);
+        revocationList = new JwtTokenRevocationList(properties, stringRedisTemplate, redisMessageListenerContainer,
+                60_000L);
+    }
+
+    @Test
+    void testRevokeToken() {
+        // Given
+        Claims claims = claims(UUID.randomUUID(), new Date());
+
+        // When
+        revocationList.revokeToken("access");
+
+        // Then
+        assertTrue(revocationList.isRevoked("access", claims));
+        assertFalse(revocationList.isRevoked("other", claims));
+        verify(stringRedisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testRevokeUserRejectsTokensIssuedBefore() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Claims before = claims(userId, new Date(System.currentTimeMillis() - 10_000));
+        Claims after = claims(userId, new Date(System.currentTimeMillis() + 10_000));
+
+        // When
+        revocationList.revokeUser(userId);
+
+        // Then
+        assertTrue(revocationList.isRevoked("before", before));
+        assertFalse(revocationList.isRevoked("after", after));
+        assertFalse(revocationList.isRevoked("before", claims(UUID.randomUUID(), before.getIssuedAt())));
+    }
+
+    @Test
+    void testRevokeUserAcceptsTokensIssuedInTheSameSecond() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        long revokedAt = 1_700_000_000_500L;
+        String member = "user:" + userId + ":" + revokedAt;
+
+        // When
+        revocationList.onMessage(new DefaultMessage("jwt_tokens:revocations".getBytes(StandardCharsets.UTF_8),
+                member.getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertFalse(revocationList.isRevoked("same", claims(userId, new Date(1_700_000_000_000L))));
+        assertTrue(revocationList.isRevoked("earlier", claims(userId, new Date(1_699_999_999_000L))));
+    }
+
+    @Test
+    void testRevocationFromOtherNode() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String member = "user:" + userId + ":" + System.currentTimeMillis();
+
+        // When
+        revocationList.onMessage(new DefaultMessage("jwt_tokens:revocations".getBytes(StandardCharsets.UTF_8),
+                member.getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertTrue(revocationList.isRevoked("access", claims(userId, new Date(System.currentTimeMillis() - 5_000))));
+    }
+
+    @Test
+    void testSubscribeLoadsPersistedRevocations() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        long revokedAt = System.currentTimeMillis() - 1_000;
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScoreWithScores(any(), any(Double.class), any(Double.class)))
+                .thenReturn(Set.of(new DefaultTypedTuple<>("user:" + userId + ":" + revokedAt,
+                        (double) revokedAt + 60_000)));
+
+        // When
+        revocationList.subscribe();
+
+        // Then
+        assertTrue(revocationList.isRevoked("access", claims(userId, new Date(revokedAt - 5_000))));
+    }
+
+    @Test
+    void testDisabled() {
+        // Given
+        properties.setStatelessAccessTokens(false);
+
+        // When
+        revocationList.revokeToken("access");
+        revocationList.subscribe();
+
+        // Then
+        assertFalse(revocationList.isRevoked("access", claims(UUID.randomUUID(), new Date())));
+        verify(stringRedisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    private static Claims claims(UUID userId, Date issuedAt) {
+        return Jwts.claims().subject(userId.toString()).issuedAt(issuedAt).build();
+    }
+}
@@ -0,0 +1,336 @@
+package com.securevault.main.service.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.securevault.main.entity.JwtToken;
+import com.securevault.main.exception.TokenReuseException;
+import com.securevault.main.util.TokenDigestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenStoreTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private MappingRedisConverter redisConverter;
+
+    private JwtTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        redisConverter = new MappingRedisConverter(new RedisMappingContext());
+        redisConverter.afterPropertiesSet();
+        store = new JwtTokenStore(stringRedisTemplate, redisConverter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindByDigest() {
+        // Given
+        JwtToken jwtToken = JwtToken.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .token("access")
+                .refreshToken("refresh")
+                .rememberMe(true)
+                .userAgent("agent")
+                .tokenTimeToLive(60_000L)
+                .build();
+        RedisData redisData = new RedisData();
+        redisConverter.write(jwtToken, redisData);
+
+        List<Object> reply = new ArrayList<>();
+        redisData.getBucket().rawMap().forEach((field, value) -> {
+            reply.add(new String(field, StandardCharsets.UTF_8));
+            reply.add(new String(value, StandardCharsets.UTF_8));
+        });
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("jwt_token_digests:digest")),
+                eq("jwt_tokens"), eq(JwtTokenKeys.ROTATED_MARKER))).thenReturn(reply);
+
+        // When
+        Optional<JwtToken> found = store.findByDigest("digest");
+
+        // Then
+        assertTrue(found.isPresent());
+        assertEquals(jwtToken.getId(), found.get().getId());
+        assertEquals(jwtToken.getUserId(), found.get().getUserId());
+        assertEquals("access", found.get().getToken());
+        assertEquals(60_000L, found.get().getTokenTimeToLive());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindByDigestNotFound() {
+        // Given
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(List.of());
+
+        // When
+        Optional<JwtToken> found = store.findByDigest("missing");
+
+        // Then
+        assertFalse(found.isPresent());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindByDigestOfRotatedRefreshToken() {
+        // Given
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn(List.of(JwtTokenKeys.ROTATED_MARKER));
+
+        // When / Then
+        assertThrows(TokenReuseException.class, () -> store.findByDigest("rotated"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRotate() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        JwtToken oldToken = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("old-access")
+                .refreshToken("old-refresh").tokenTimeToLive(60_000L).build();
+        JwtToken newToken = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("new-access")
+                .refreshToken("new-refresh").tokenTimeToLive(60_000L).build();
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn("rotated");
+
+        // When
+        JwtTokenStore.RotationStatus status = store.rotate(oldToken, newToken);
+
+        // Then
+        assertEquals(JwtTokenStore.RotationStatus.ROTATED, status);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+
+        assertEquals(List.of(
+                "jwt_token_digests:" + TokenDigestUtils.digest("old-refresh"),
+                "jwt_token_digests:" + TokenDigestUtils.digest("old-access"),
+                "jwt_token_digests:" + TokenDigestUtils.digest("new-access"),
+                "jwt_token_digests:" + TokenDigestUtils.digest("new-refresh"),
+                "jwt_token_sessions:" + userId), keys.getValue());
+
+        List<Object> values = List.of(args.getValue());
+        assertEquals(List.of("jwt_tokens", oldToken.getId().toString(), newToken.getId().toString(), "60000",
+                JwtTokenKeys.ROTATED_MARKER), values.subList(0, 5));
+        assertEquals(List.of("1", "jwt_tokens:userId:" + userId), values.subList(6, 8));
+        assertTrue(values.contains("new-access"));
+        assertTrue(values.contains("new-refresh"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRotateReportsReuse() {
+        // Given
+        JwtToken oldToken = JwtToken.builder().id(UUID.randomUUID()).token("old-access")
+                .refreshToken("old-refresh").build();
+        JwtToken newToken = JwtToken.builder().id(UUID.randomUUID()).token("new-access")
+                .refreshToken("new-refresh").build();
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn("reuse", "not_found");
+
+        // When / Then
+        assertEquals(JwtTokenStore.RotationStatus.REUSED, store.rotate(oldToken, newToken));
+        assertEquals(JwtTokenStore.RotationStatus.NOT_FOUND, store.rotate(oldToken, newToken));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRotateFoundThroughAccessTokenMarksRefreshToken() {
+        // Given a session resolved through its access token
+        UUID userId = UUID.randomUUID();
+        JwtToken oldToken = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("old-access")
+                .refreshToken("old-refresh").tokenTimeToLive(60_000L).build();
+        JwtToken newToken = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("new-access")
+                .refreshToken("new-refresh").tokenTimeToLive(60_000L).build();
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn("rotated");
+
+        // When
+        store.rotate(oldToken, newToken);
+
+        // Then the marker goes to the refresh digest, distinct from the unlinked access digest
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), keys.capture(), any(Object[].class));
+        String refreshDigestKey = JwtTokenKeys.digestKey("old-refresh");
+        assertEquals(refreshDigestKey, keys.getValue().get(0));
+        assertEquals(JwtTokenKeys.digestKey("old-access"), keys.getValue().get(1));
+
+        // When the refresh token is replayed, its digest key holds the marker
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of(refreshDigestKey)), any(), any()))
+                .thenReturn(List.of(JwtTokenKeys.ROTATED_MARKER));
+
+        // Then
+        assertThrows(TokenReuseException.class,
+                () -> store.findByDigest(TokenDigestUtils.digest("old-refresh")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveSessionKeysRegistersSession() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        JwtToken jwtToken = JwtToken.builder().id(UUID.randomUUID()).userId(userId).token("access")
+                .refreshToken("refresh").build();
+
+        // When
+        store.saveSessionKeys(jwtToken, 60_000L);
+
+        // Then
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "jwt_token_sessions:" + userId,
+                "jwt_token_digests:" + TokenDigestUtils.digest("access"),
+                "jwt_token_digests:" + TokenDigestUtils.digest("refresh"))),
+                eq(jwtToken.getId().toString()), eq("60000"), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeleteAllByUserId() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(new LinkedHashSet<>(List.of("s1")), Set.of("s1", "s2")))
+                .thenReturn(List.of(
+                        Arrays.asList("access-1", "refresh-1"), Set.of("jwt_tokens:userId:" + userId),
+                        Arrays.asList(null, null), Set.of()))
+                .thenReturn(List.of());
+
+        // When
+        List<String> deleted = store.deleteAllByUserId(userId);
+
+        // Then
+        assertEquals(List.of("access-1"), deleted);
+
+        ArgumentCaptor<RedisCallback<Object>> callbacks = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate, times(3)).executePipelined(callbacks.capture());
+
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callbacks.getAllValues().get(2).doInRedis(connection);
+
+        verify(connection).sRem("jwt_tokens", "s1", "s2");
+        verify(connection).sRem("jwt_tokens:userId:" + userId, "s1");
+        verify(connection).unlink("jwt_token_sessions:" + userId,
+                "jwt_tokens:s1", "jwt_tokens:s1:idx",
+                "jwt_token_digests:" + TokenDigestUtils.digest("access-1"),
+                "jwt_token_digests:" + TokenDigestUtils.digest("refresh-1"),
+                "jwt_tokens:s2", "jwt_tokens:s2:idx");
+    }
+
+    @Test
+    void testDeleteAllByUserIdWithoutSessions() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(Set.of(), Set.of()));
+
+        // When
+        List<String> deleted = store.deleteAllByUserId(userId);
+
+        // Then
+        assertTrue(deleted.isEmpty());
+        verify(stringRedisTemplate).unlink("jwt_token_sessions:" + userId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeleteAllByUserIdKeepsSession() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID keep = UUID.randomUUID();
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(new LinkedHashSet<>(List.of(keep.toString(), "s2")), Set.of()))
+                .thenReturn(List.of(Arrays.asList("access-2", "refresh-2"), Set.of()))
+                .thenReturn(List.of());
+
+        // When
+        List<String> deleted = store.deleteAllByUserId(userId, keep);
+
+        // Then
+        assertEquals(List.of("access-2"), deleted);
+
+        ArgumentCaptor<RedisCallback<Object>> callbacks = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate, times(3)).executePipelined(callbacks.capture());
+
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callbacks.getAllValues().get(2).doInRedis(connection);
+
+        verify(connection).zRem("jwt_token_sessions:" + userId, "s2");
+        verify(connection).unlink("jwt_tokens:s2", "jwt_tokens:s2:idx",
+                "jwt_token_digests:" + TokenDigestUtils.digest("access-2"),
+                "jwt_token_digests:" + TokenDigestUtils.digest("refresh-2"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindSessions() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        UUID gone = UUID.randomUUID();
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(0L, 5L, new LinkedHashSet<>(List.of(
+                        new DefaultTypedTuple<>(active.toString(), 2_000.0),
+                        new DefaultTypedTuple<>(gone.toString(), 1_000.0)))))
+                .thenReturn(List.of(Arrays.asList("127.0.0.1", "agent", "true"), Arrays.asList(null, null, null)));
+
+        // When
+        JwtTokenStore.SessionPage page = store.findSessions(userId, 1, 2);
+
+        // Then
+        assertEquals(4, page.total());
+        assertEquals(1, page.sessions().size());
+        assertEquals(active, page.sessions().get(0).id());
+        assertEquals(2_000L, page.sessions().get(0).expiresAt());
+        assertEquals("agent", page.sessions().get(0).userAgent());
+        assertTrue(page.sessions().get(0).rememberMe());
+        verify(zSetOperations).remove("jwt_token_sessions:" + userId, gone.toString());
+
+        ArgumentCaptor<RedisCallback<Object>> callbacks = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate, times(2)).executePipelined(callbacks.capture());
+
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callbacks.getAllValues().get(0).doInRedis(connection);
+
+        verify(connection).zRevRangeWithScores("jwt_token_sessions:" + userId, 2, 3);
+    }
+}